@@ -18,10 +18,14 @@ package com.xphsc.easyjdbc;
 import com.xphsc.easyjdbc.builder.SQL;
 import com.xphsc.easyjdbc.core.entity.Example;
 import com.xphsc.easyjdbc.core.exception.JdbcDataException;
+import com.xphsc.easyjdbc.core.support.ResultSetIterator;
+import com.xphsc.easyjdbc.core.support.RowHandler;
+import com.xphsc.easyjdbc.core.transform.ColumnarResult;
 import com.xphsc.easyjdbc.page.PageInfo;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Created by ${huipei.x}
@@ -166,6 +170,13 @@ public interface EasyJdbcOperations {
 
      List<Map<String, Object>> find(String sql, Object... parameters) throws JdbcDataException;
 
+    /**
+     * Analytic query read column by column into primitive arrays instead of boxed rows
+     * @param sql Query SQL
+     * @param parameters Query parameters
+     */
+     ColumnarResult findColumnar(String sql, Object... parameters) throws JdbcDataException;
+
 
 
     /**
@@ -191,6 +202,32 @@ public interface EasyJdbcOperations {
     public <T> PageInfo<T> findByPage(String selectSql,Class<?> persistentClass,Integer offset,Integer limit,Object... parameters) ;
 
 
+     /**
+      * Entity query iterated as the rows are fetched, the iterator must be closed when not exhausted
+      * @param sql Query SQL
+      * @param persistentClass Persistent Entity Class
+      * @param parameters Query parameters
+      */
+     <T> ResultSetIterator<T> iterate(String sql,Class<?> persistentClass,Object... parameters) throws JdbcDataException;
+
+     /**
+      * Entity query streamed as the rows are fetched, the stream must be closed
+      * @param sql Query SQL
+      * @param persistentClass Persistent Entity Class
+      * @param parameters Query parameters
+      */
+     <T> Stream<T> stream(String sql,Class<?> persistentClass,Object... parameters) throws JdbcDataException;
+
+     /**
+      * Entity query pushing each row to the handler as it is fetched
+      * @param sql Query SQL
+      * @param persistentClass Persistent Entity Class
+      * @param handler Row handler
+      * @param parameters Query parameters
+      * @return Number of rows handled
+      */
+     <T> long forEach(String sql,Class<?> persistentClass,RowHandler<? super T> handler,Object... parameters) throws JdbcDataException;
+
      <T> List<T> findByIds(Class<?> persistentClass,Iterable values);
     /**
      * Number statistics
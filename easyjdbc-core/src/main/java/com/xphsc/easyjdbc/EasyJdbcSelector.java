@@ -25,12 +25,15 @@ import com.xphsc.easyjdbc.core.lambda.StringSupplier;
 import com.xphsc.easyjdbc.executor.CountExecutor;
 import com.xphsc.easyjdbc.executor.FindExecutor;
 import com.xphsc.easyjdbc.core.support.JdbcBuilder;
+import com.xphsc.easyjdbc.core.support.ResultSetIterator;
+import com.xphsc.easyjdbc.core.support.RowHandler;
 import com.xphsc.easyjdbc.page.PageInfo;
 import com.xphsc.easyjdbc.page.PageInfoImpl;
 import com.xphsc.easyjdbc.util.Assert;
 import com.xphsc.easyjdbc.util.Collects;
 import com.xphsc.easyjdbc.util.StringUtil;
 import java.util.*;
+import java.util.stream.Stream;
 
 
 /**
@@ -45,6 +48,8 @@ public class EasyJdbcSelector {
 	private Integer limit;
 	private Class<?> entityClass;
 	private PageInfo<?> pageInfo;
+	private int fetchSize;
+	private boolean reuseInstance;
 	private  Map<String,String> mappings ;
 	private final LinkedList<Object> parameters;
 
@@ -88,6 +93,24 @@ public class EasyJdbcSelector {
 		return getSelf();
 	}
 
+	/**
+	 * Rows fetched per round trip by iterate and stream
+	 * @param fetchSize Fetch size, driver specific values such as Integer.MIN_VALUE for MySQL are passed through
+	 */
+	public EasyJdbcSelector fetchSize(int fetchSize){
+		this.fetchSize = fetchSize;
+		return getSelf();
+	}
+
+	/**
+	 * Fill one entity instance for all rows passed to forEach instead of one per row
+	 * @param reuseInstance Whether the instance is reused, handlers must then not keep it
+	 */
+	public EasyJdbcSelector reuseInstance(boolean reuseInstance){
+		this.reuseInstance = reuseInstance;
+		return getSelf();
+	}
+
 	/**
 	 * Column <--> Class Field Mapping
 	 * @param column Column names
@@ -196,6 +219,40 @@ public class EasyJdbcSelector {
 		return results;
 	}
 
+	/**
+	 * Iterate the entities as they are fetched, the iterator must be closed when not exhausted
+	 */
+	public <T> ResultSetIterator<T> iterate() throws JdbcDataException{
+		return this.<T>streamingExecutor().iterate(fetchSize);
+	}
+
+	/**
+	 * Stream the entities as they are fetched, the stream must be closed
+	 */
+	public <T> Stream<T> stream() throws JdbcDataException{
+		return this.<T>iterate().stream();
+	}
+
+	/**
+	 * Push the entities to the handler one at a time as they are fetched
+	 * @return Number of rows handled
+	 */
+	public <T> long forEach(RowHandler<? super T> handler) throws JdbcDataException{
+		Assert.notNull(handler, "Row handler cannot be null");
+		return this.<T>streamingExecutor().forEach(handler, fetchSize, reuseInstance);
+	}
+
+	private <T> FindExecutor<List<T>> streamingExecutor(){
+		Assert.notNull(entityClass, "Entity type cannot be empty");
+		if(StringUtil.isBlank(this.sql)) {
+			this.sql = this.sqlBuilder.toString();
+		}
+		Assert.hasText(sql, "SQL statement cannot be empty");
+		return new FindExecutor<List<T>>(
+				this::getJdbcBuilder, dialectName,entityClass,sql
+				,parameters.toArray(),this.mappings,offset,limit);
+	}
+
 	public <T> PageInfo<T> page() throws JdbcDataException{
 		Assert.notNull(entityClass, "Entity type cannot be empty");
 		List<T> results=null;
@@ -212,7 +269,7 @@ public class EasyJdbcSelector {
 					this::getJdbcBuilder, dialectName,entityClass,sql
 					,parameters.toArray(),this.mappings,pageInfo);
 			 results = executor.execute();
-			 total=count();
+			 total=total();
 			return new PageInfoImpl<T>(results,total,pageInfo.getPageNum(),pageInfo.getPageSize());
 		}else{
 			int pageNum=(int) Math.ceil((double) ((offset +limit) / limit));
@@ -237,6 +294,16 @@ public class EasyJdbcSelector {
 		return count;
 	}
 
+	/**
+	 * Total of the page query, may be served from the page total cache
+	 */
+	private long total() throws JdbcDataException {
+		CountExecutor executor =  new CountExecutor(this::getJdbcBuilder,sql,parameters.toArray(),true);
+		long count = executor.execute();
+		executor = null;//hlep gc.
+		return count;
+	}
+
 	// ================= Building SQL
 	private final SQL sqlBuilder = SQL.BUILD();
 	
@@ -19,6 +19,11 @@ package com.xphsc.easyjdbc;
 
 
 import com.xphsc.easyjdbc.builder.SQL;
+import com.xphsc.easyjdbc.core.cache.Cache;
+import com.xphsc.easyjdbc.core.cache.CacheExpiry;
+import com.xphsc.easyjdbc.core.cache.EntityCache;
+import com.xphsc.easyjdbc.core.cache.NegativeCache;
+import com.xphsc.easyjdbc.core.cache.InvalidationBus;
 import com.xphsc.easyjdbc.core.entity.Example;
 import com.xphsc.easyjdbc.core.entity.InsertMode;
 import com.xphsc.easyjdbc.core.exception.JdbcDataException;
@@ -32,6 +37,9 @@ import com.xphsc.easyjdbc.executor.ids.FindByIdsExecutor;
 import com.xphsc.easyjdbc.page.PageInfo;
 import com.xphsc.easyjdbc.page.PageInfoImpl;
 import com.xphsc.easyjdbc.core.support.EasyJdbcAccessor;
+import com.xphsc.easyjdbc.core.support.ResultSetIterator;
+import com.xphsc.easyjdbc.core.support.RowHandler;
+import com.xphsc.easyjdbc.core.transform.ColumnarResult;
 import com.xphsc.easyjdbc.util.Assert;
 import com.xphsc.easyjdbc.util.Collects;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -40,6 +48,7 @@ import javax.sql.DataSource;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Created by ${huipei.x}
@@ -333,7 +342,7 @@ public class EasyJdbcTemplate extends EasyJdbcAccessor implements EasyJdbcOperat
     @Override
     public <T> PageInfo<T> findByPage(SQL selectSql,Class<?> persistentClass,PageInfo page,Object... parameters) throws JdbcDataException{
         List<T> list= find(selectSql,persistentClass,page,parameters);
-        long total= count(selectSql.toString(), parameters);
+        long total= pageTotal(selectSql.toString(), parameters);
         PageInfo pageInfo= pageInfo(page);
         return new PageInfoImpl<T>(list,total,pageInfo.getPageNum(),pageInfo.getPageSize());
     }
@@ -361,6 +370,12 @@ public class EasyJdbcTemplate extends EasyJdbcAccessor implements EasyJdbcOperat
         return list;
     }
 
+    @Override
+    public ColumnarResult findColumnar(String sql,Object... parameters) throws JdbcDataException{
+        Assert.hasText(sql, "SQL statement cannot be empty");
+        return this.getJdbcBuilder().queryForColumns(sql, parameters);
+    }
+
 
 
     /**
@@ -380,7 +395,7 @@ public class EasyJdbcTemplate extends EasyJdbcAccessor implements EasyJdbcOperat
     @Override
     public <T> PageInfo<T> findByPage(String selectSql,Class<?> persistentClass,PageInfo page,Object... parameters) throws JdbcDataException{
         List<T> list= find(selectSql,persistentClass,page,parameters);
-        long total= count(selectSql, parameters);
+        long total= pageTotal(selectSql, parameters);
         PageInfo pageInfo= pageInfo(page);
         return new PageInfoImpl<T>(list,total,pageInfo.getPageNum(),pageInfo.getPageSize());
     }
@@ -407,12 +422,34 @@ public class EasyJdbcTemplate extends EasyJdbcAccessor implements EasyJdbcOperat
     @Override
     public <T> PageInfo<T> findByPage(String selectSql,Class<?> persistentClass,Integer offset,Integer limit,Object... parameters) throws JdbcDataException{
         List<T> list= find(selectSql,persistentClass,offset,limit,parameters);
-        long total= count(selectSql.toString(), parameters);
+        long total= pageTotal(selectSql.toString(), parameters);
         PageInfo page=PageInfo.builder().offset(offset).limit(limit).build();
         PageInfo pageInfo= pageInfo(page);
         return new PageInfoImpl<T>(list,total,pageInfo.getPageNum(),pageInfo.getPageSize());
     }
 
+    @Override
+    public <T> ResultSetIterator<T> iterate(String sql,Class<?> persistentClass,Object... parameters) throws JdbcDataException{
+        Assert.notNull(persistentClass, "Entity type cannot be empty");
+        Assert.hasText(sql, "SQL statement cannot be empty");
+        FindExecutor<List<T>> executor =  new FindExecutor<List<T>>(this::getJdbcBuilder,this.getDialectName(),persistentClass,sql,parameters);
+        return executor.iterate(0);
+    }
+
+    @Override
+    public <T> Stream<T> stream(String sql,Class<?> persistentClass,Object... parameters) throws JdbcDataException{
+        return this.<T>iterate(sql, persistentClass, parameters).stream();
+    }
+
+    @Override
+    public <T> long forEach(String sql,Class<?> persistentClass,RowHandler<? super T> handler,Object... parameters) throws JdbcDataException{
+        Assert.notNull(persistentClass, "Entity type cannot be empty");
+        Assert.hasText(sql, "SQL statement cannot be empty");
+        Assert.notNull(handler, "Row handler cannot be null");
+        FindExecutor<List<T>> executor =  new FindExecutor<List<T>>(this::getJdbcBuilder,this.getDialectName(),persistentClass,sql,parameters);
+        return executor.forEach(handler, 0, false);
+    }
+
     @Override
     public <T> List<T> findByIds(Class<?> persistentClass,Iterable values) throws JdbcDataException{
         Assert.notNull(persistentClass, "Entity type cannot be empty");
@@ -437,6 +474,17 @@ public class EasyJdbcTemplate extends EasyJdbcAccessor implements EasyJdbcOperat
         return count;
     }
 
+    /**
+     * Total of a paged query, may be served from the page total cache
+     */
+    private long pageTotal(String sql,Object... parameters) throws JdbcDataException{
+        Assert.hasText(sql, "SQL statement cannot be empty");
+        CountExecutor executor =  new CountExecutor(this::getJdbcBuilder,sql,parameters,true);
+        long count = executor.execute();
+        executor = null;
+        return count;
+    }
+
     /**
      *
      * @param persistentClass object
@@ -552,6 +600,19 @@ public class EasyJdbcTemplate extends EasyJdbcAccessor implements EasyJdbcOperat
         this.setDataSource(builder.dataSource);
         this.setDialectName(builder.dialectName);
         this.useLocalCache(builder.useLocalCache);
+        this.localCache(builder.localCache);
+        this.cacheExpiry(builder.cacheExpiry);
+        this.copyOnRead(builder.copyOnRead);
+        this.coalesceQueries(builder.coalesceQueries);
+        this.compiledMapping(builder.compiledMapping);
+        this.useEntityCache(builder.useEntityCache);
+        this.entityCache(builder.entityCache);
+        this.useNegativeCache(builder.useNegativeCache);
+        this.negativeCache(builder.negativeCache);
+        this.usePageTotalCache(builder.usePageTotalCache);
+        this.pageTotalCache(builder.pageTotalCache);
+        this.pageTotalExpiry(builder.pageTotalExpiry);
+        this.invalidationBus(builder.invalidationBus);
         this.showSQL(builder.showSQL);
         this.afterPropertiesSet();
 
@@ -566,6 +627,19 @@ public class EasyJdbcTemplate extends EasyJdbcAccessor implements EasyJdbcOperat
         private DataSource dataSource;
         private  String dialectName;
         private boolean useLocalCache;
+        private Cache localCache;
+        private CacheExpiry cacheExpiry;
+        private boolean copyOnRead;
+        private boolean coalesceQueries;
+        private boolean compiledMapping;
+        private boolean useEntityCache;
+        private EntityCache entityCache;
+        private boolean useNegativeCache;
+        private NegativeCache negativeCache;
+        private boolean usePageTotalCache;
+        private Cache pageTotalCache;
+        private CacheExpiry pageTotalExpiry;
+        private InvalidationBus invalidationBus;
         private boolean showSQL;
 
         public Builder jdbcTemplate(JdbcTemplate jdbcTemplate) {
@@ -609,6 +683,71 @@ public class EasyJdbcTemplate extends EasyJdbcAccessor implements EasyJdbcOperat
             return this;
         }
 
+        public Builder localCache(Cache localCache) {
+            this.localCache = localCache;
+            return this;
+        }
+
+        public Builder cacheExpiry(CacheExpiry cacheExpiry) {
+            this.cacheExpiry = cacheExpiry;
+            return this;
+        }
+
+        public Builder copyOnRead(boolean copyOnRead) {
+            this.copyOnRead = copyOnRead;
+            return this;
+        }
+
+        public Builder coalesceQueries(boolean coalesceQueries) {
+            this.coalesceQueries = coalesceQueries;
+            return this;
+        }
+
+        public Builder compiledMapping(boolean compiledMapping) {
+            this.compiledMapping = compiledMapping;
+            return this;
+        }
+
+        public Builder useEntityCache(boolean useEntityCache) {
+            this.useEntityCache = useEntityCache;
+            return this;
+        }
+
+        public Builder entityCache(EntityCache entityCache) {
+            this.entityCache = entityCache;
+            return this;
+        }
+
+        public Builder useNegativeCache(boolean useNegativeCache) {
+            this.useNegativeCache = useNegativeCache;
+            return this;
+        }
+
+        public Builder negativeCache(NegativeCache negativeCache) {
+            this.negativeCache = negativeCache;
+            return this;
+        }
+
+        public Builder usePageTotalCache(boolean usePageTotalCache) {
+            this.usePageTotalCache = usePageTotalCache;
+            return this;
+        }
+
+        public Builder pageTotalCache(Cache pageTotalCache) {
+            this.pageTotalCache = pageTotalCache;
+            return this;
+        }
+
+        public Builder pageTotalExpiry(CacheExpiry pageTotalExpiry) {
+            this.pageTotalExpiry = pageTotalExpiry;
+            return this;
+        }
+
+        public Builder invalidationBus(InvalidationBus invalidationBus) {
+            this.invalidationBus = invalidationBus;
+            return this;
+        }
+
 
         public Builder showSQL(boolean showSQL) {
             this.showSQL = showSQL;
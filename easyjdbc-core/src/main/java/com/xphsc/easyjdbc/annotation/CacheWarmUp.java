@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a dao method without parameters whose results are loaded into the cache at startup,
+ * see {@link com.xphsc.easyjdbc.core.support.CacheWarmer}
+ * @author huipei.x
+ * @since 2.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CacheWarmUp {
+
+    /**
+     * Name reported for the warm-up, defaults to the dao method
+     */
+    String value() default "";
+}
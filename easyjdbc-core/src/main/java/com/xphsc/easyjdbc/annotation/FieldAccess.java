@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Reads and writes the persistent fields of the entity directly instead of through its getters
+ * and setters, which then become optional. All entities are accessed this way when field access
+ * is enabled on {@link com.xphsc.easyjdbc.EasyJdbcTemplate}
+ * @author huipei.x
+ * @since 2.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface FieldAccess {
+}
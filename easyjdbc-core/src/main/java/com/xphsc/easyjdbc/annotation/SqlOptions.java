@@ -31,4 +31,15 @@ public @interface SqlOptions {
     String keyProperty() default "id";
     String keyColumn() default "";
 
+    /**
+     * Time-to-live in milliseconds of the locally cached results of this method,
+     * -1 uses the template default, 0 never expires
+     */
+    long cacheTtl() default -1;
+
+    /**
+     * Fraction of {@link #cacheTtl()} after which a read refreshes the entry in the background, 0 disables it
+     */
+    double refreshAhead() default 0;
+
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-to-live of cached query results, with optional refresh-ahead.
+ * <p>With a refresh-ahead ratio of e.g. {@code 0.8}, the first read of an entry after 80% of its
+ * time-to-live has elapsed reloads it in the background, so hot entries are replaced before they
+ * expire and readers keep getting the cached value.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class CacheExpiry {
+
+    /**
+     * Entries never expire, they are only invalidated by writes or evicted.
+     */
+    public static final CacheExpiry NONE = new CacheExpiry(0, 0);
+
+    private static final ThreadLocal<CacheExpiry> CURRENT = new ThreadLocal<CacheExpiry>();
+
+    private final long ttlNanos;
+    private final double refreshAheadRatio;
+
+    private CacheExpiry(long ttlNanos, double refreshAheadRatio) {
+        this.ttlNanos = ttlNanos;
+        this.refreshAheadRatio = refreshAheadRatio;
+    }
+
+    public static CacheExpiry of(long ttl, TimeUnit unit) {
+        if (ttl < 0) {
+            throw new IllegalArgumentException("Cache ttl must not be negative: " + ttl);
+        }
+        return ttl == 0 ? NONE : new CacheExpiry(unit.toNanos(ttl), 0);
+    }
+
+    /**
+     * Refresh entries in the background once the given fraction of their time-to-live elapsed.
+     * @param ratio between 0 and 1 exclusive, 0 disables refresh-ahead
+     */
+    public CacheExpiry refreshAhead(double ratio) {
+        if (ratio < 0 || ratio >= 1) {
+            throw new IllegalArgumentException("Refresh ahead ratio must be in [0, 1): " + ratio);
+        }
+        return ttlNanos == 0 ? this : new CacheExpiry(ttlNanos, ratio);
+    }
+
+    public long getTtl(TimeUnit unit) {
+        return unit.convert(ttlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public double getRefreshAheadRatio() {
+        return refreshAheadRatio;
+    }
+
+    public boolean isExpiring() {
+        return ttlNanos > 0;
+    }
+
+    long expiresAt(long now) {
+        return ttlNanos > 0 ? now + ttlNanos : 0;
+    }
+
+    long refreshAt(long now) {
+        return ttlNanos > 0 && refreshAheadRatio > 0 ? now + (long) (ttlNanos * refreshAheadRatio) : 0;
+    }
+
+    /**
+     * Expiry overriding the template default for queries run by the current thread, e.g. set
+     * from {@link com.xphsc.easyjdbc.annotation.SqlOptions} of a dao method.
+     */
+    public static CacheExpiry current() {
+        return CURRENT.get();
+    }
+
+    public static void setCurrent(CacheExpiry expiry) {
+        CURRENT.set(expiry);
+    }
+
+    public static void clearCurrent() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.util.Collection;
+
+/**
+ * Applies invalidation events received from other nodes to the local query, entity and negative caches.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class CacheInvalidationReceiver implements InvalidationListener {
+
+    private final TableScopedCache cache;
+    private final EntityCache entityCache;
+    private final NegativeCache negativeCache;
+
+    /**
+     * @param entityCache may be null when the entity cache is disabled
+     */
+    public CacheInvalidationReceiver(TableScopedCache cache, EntityCache entityCache) {
+        this(cache, entityCache, null);
+    }
+
+    /**
+     * @param entityCache may be null when the entity cache is disabled
+     * @param negativeCache may be null when the negative cache is disabled
+     */
+    public CacheInvalidationReceiver(TableScopedCache cache, EntityCache entityCache, NegativeCache negativeCache) {
+        this.cache = cache;
+        this.entityCache = entityCache;
+        this.negativeCache = negativeCache;
+    }
+
+    @Override
+    public void onInvalidation(InvalidationEvent event) {
+        Class<?> entityClass = event.getEntityClass() != null ? loadClass(event.getEntityClass()) : null;
+        invalidate(event.getTables(), entityClass, event.getPrimaryKeys());
+    }
+
+    /**
+     * Invalidate the given tables, evicting exactly the given entities from the entity and
+     * negative caches when the entity class is known.
+     */
+    public void invalidate(Collection<String> tables, Class<?> entityClass, Collection<?> primaryKeys) {
+        cache.invalidate(tables);
+        if (entityCache != null) {
+            if (entityClass != null) {
+                entityCache.evict(entityClass, primaryKeys);
+            } else {
+                entityCache.invalidate(tables);
+            }
+        }
+        if (negativeCache != null) {
+            if (entityClass != null) {
+                negativeCache.evict(entityClass, primaryKeys);
+            } else {
+                negativeCache.invalidate(tables);
+            }
+        }
+    }
+
+    private static Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
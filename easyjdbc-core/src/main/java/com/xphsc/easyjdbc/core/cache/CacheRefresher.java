@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background reloading of cached entries due for refresh-ahead, see {@link CacheExpiry}.
+ * Refreshes run on a small bounded pool of daemon threads; when it is saturated the refresh is
+ * skipped and the entry simply expires.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class CacheRefresher {
+
+    private static final Log LOGGER = LogFactory.getLog(CacheRefresher.class);
+
+    private static final int MAX_THREADS = 2;
+    private static final int MAX_PENDING = 256;
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+            60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(MAX_PENDING), new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "easyjdbc-cache-refresh-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private CacheRefresher() {
+    }
+
+    /**
+     * Run the reload of an entry claimed by {@link TableScopedCache.Entry#claimRefresh()}.
+     */
+    public static void refresh(final TableScopedCache.Entry entry, final Runnable reload) {
+        try {
+            EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        reload.run();
+                    } catch (RuntimeException e) {
+                        LOGGER.warn("Refreshing cached query failed, the entry will expire", e);
+                    } finally {
+                        entry.releaseRefresh();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.releaseRefresh();
+        }
+    }
+}
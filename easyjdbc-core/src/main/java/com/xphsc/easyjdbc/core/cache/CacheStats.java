@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit, miss, load, eviction and invalidation counters of a cache region, keyed by {@link Cache#getId()}.
+ * <p>Counters are striped {@link LongAdder}s, so recording on the query path does not contend
+ * between threads; {@link #snapshot()} gives a consistent-enough point-in-time copy.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class CacheStats implements CacheStatsMXBean {
+
+    private static final ConcurrentHashMap<String, CacheStats> REGIONS = new ConcurrentHashMap<String, CacheStats>();
+
+    private final String region;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadTime = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private CacheStats(String region) {
+        this.region = region;
+    }
+
+    /**
+     * Statistics of the given region, created on first use.
+     */
+    public static CacheStats of(String region) {
+        CacheStats stats = REGIONS.get(region);
+        if (stats == null) {
+            CacheStats created = new CacheStats(region);
+            stats = REGIONS.putIfAbsent(region, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Snapshots of all regions, by region.
+     */
+    public static Map<String, Snapshot> snapshots() {
+        Map<String, Snapshot> snapshots = new LinkedHashMap<String, Snapshot>();
+        for (CacheStats stats : REGIONS.values()) {
+            snapshots.put(stats.region, stats.snapshot());
+        }
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordLoad(long nanos) {
+        loads.increment();
+        loadTime.add(nanos);
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    public void recordInvalidation() {
+        invalidations.increment();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(region, hits.sum(), misses.sum(), loads.sum(), loadTime.sum(),
+                evictions.sum(), invalidations.sum());
+    }
+
+    @Override
+    public String getRegion() {
+        return region;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        return snapshot().getHitRate();
+    }
+
+    @Override
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    @Override
+    public long getTotalLoadTime() {
+        return loadTime.sum();
+    }
+
+    @Override
+    public double getAverageLoadPenalty() {
+        return snapshot().getAverageLoadPenalty();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    @Override
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        loads.reset();
+        loadTime.reset();
+        evictions.reset();
+        invalidations.reset();
+    }
+
+    /**
+     * Point-in-time copy of the counters of a region, load times in nanoseconds.
+     */
+    public static final class Snapshot {
+        private final String region;
+        private final long hitCount;
+        private final long missCount;
+        private final long loadCount;
+        private final long totalLoadTime;
+        private final long evictionCount;
+        private final long invalidationCount;
+
+        private Snapshot(String region, long hitCount, long missCount, long loadCount, long totalLoadTime,
+                         long evictionCount, long invalidationCount) {
+            this.region = region;
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadCount = loadCount;
+            this.totalLoadTime = totalLoadTime;
+            this.evictionCount = evictionCount;
+            this.invalidationCount = invalidationCount;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getRequestCount() {
+            return hitCount + missCount;
+        }
+
+        public double getHitRate() {
+            long requests = getRequestCount();
+            return requests == 0 ? 0 : (double) hitCount / requests;
+        }
+
+        public long getLoadCount() {
+            return loadCount;
+        }
+
+        public long getTotalLoadTime() {
+            return totalLoadTime;
+        }
+
+        public double getAverageLoadPenalty() {
+            return loadCount == 0 ? 0 : (double) totalLoadTime / loadCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public long getInvalidationCount() {
+            return invalidationCount;
+        }
+
+        @Override
+        public String toString() {
+            return "CacheStats[" + region + "] hits=" + hitCount + ", misses=" + missCount
+                    + ", hitRate=" + String.format("%.2f", getHitRate()) + ", loads=" + loadCount
+                    + ", avgLoadMs=" + String.format("%.3f", getAverageLoadPenalty() / 1000000d)
+                    + ", evictions=" + evictionCount + ", invalidations=" + invalidationCount;
+        }
+    }
+}
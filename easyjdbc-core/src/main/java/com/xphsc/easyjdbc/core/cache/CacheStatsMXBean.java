@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+/**
+ * JMX view of the statistics of a cache region, see {@link CacheStatsReporter#registerMBeans()}.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public interface CacheStatsMXBean {
+
+    String getRegion();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getLoadCount();
+
+    long getTotalLoadTime();
+
+    double getAverageLoadPenalty();
+
+    long getEvictionCount();
+
+    long getInvalidationCount();
+
+    void reset();
+}
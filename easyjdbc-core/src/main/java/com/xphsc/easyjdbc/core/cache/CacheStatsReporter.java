@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional publishing of {@link CacheStats}: periodic logging and JMX registration.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class CacheStatsReporter {
+
+    private static final Log LOGGER = LogFactory.getLog(CacheStatsReporter.class);
+
+    private static final String OBJECT_NAME = "com.xphsc.easyjdbc:type=CacheStats,region=";
+
+    private static ScheduledExecutorService scheduler;
+    private static ScheduledFuture<?> logging;
+
+    private CacheStatsReporter() {
+    }
+
+    /**
+     * Log the statistics of all regions at info level every period, replacing a previous schedule.
+     */
+    public static synchronized void logEvery(long period, TimeUnit unit) {
+        stopLogging();
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "easyjdbc-cache-stats");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        logging = scheduler.scheduleAtFixedRate(CacheStatsReporter::log, period, period, unit);
+    }
+
+    public static synchronized void stopLogging() {
+        if (logging != null) {
+            logging.cancel(false);
+            logging = null;
+        }
+    }
+
+    public static void log() {
+        if (LOGGER.isInfoEnabled()) {
+            for (CacheStats.Snapshot snapshot : CacheStats.snapshots().values()) {
+                LOGGER.info(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Register the statistics of every region known so far with the platform MBean server.
+     */
+    public static void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (String region : CacheStats.snapshots().keySet()) {
+            try {
+                ObjectName name = new ObjectName(OBJECT_NAME + ObjectName.quote(region));
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(CacheStats.of(region), name);
+                }
+            } catch (JMException e) {
+                LOGGER.warn("Registering cache statistics of region " + region + " failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.util.Collection;
+
+/**
+ * Second-level cache of entities keyed by entity class and primary key.
+ * <p>Writes that know the primary keys they touch evict exactly those entries, see
+ * {@link #evict(Class, Iterable)}; any other write to an entity table invalidates the cached
+ * entities of that table, see {@link #invalidate(Collection)}. Primary keys are compared by
+ * their string form, so {@code 1}, {@code 1L} and {@code "1"} address the same entity.
+ * <p>Entities are cached as {@link ResultSnapshots snapshots} and every reader gets a copy of its
+ * own, so an entity read, changed and not yet updated never shows through the cache.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class EntityCache {
+
+    private final Cache delegate;
+    private final EntityVersions versions = new EntityVersions();
+    private final CacheStats stats;
+
+    public EntityCache() {
+        this(new SegmentedLruCache("EntityCache"));
+    }
+
+    public EntityCache(Cache delegate) {
+        this.delegate = delegate;
+        this.stats = CacheStats.of(delegate.getId());
+    }
+
+    public String getId() {
+        return delegate.getId();
+    }
+
+    /**
+     * Capture the versions an entity load depends on, before the load is run.
+     */
+    public EntityVersions.Token token(Class<?> type, String table) {
+        return versions.token(type, table);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Class<?> type, Object primaryKey) {
+        Object key = EntityVersions.key(type, primaryKey);
+        Object object = delegate.getOject(key);
+        if (!(object instanceof Entry)) {
+            stats.recordMiss();
+            return null;
+        }
+        Entry entry = (Entry) object;
+        if (!versions.isTableCurrent(entry.token)) {
+            delegate.removeObject(key);
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        return (T) ResultSnapshots.copy(entry.entity);
+    }
+
+    /**
+     * Cache a loaded entity, unless a write touched its table or class after the token was taken.
+     */
+    public void put(Class<?> type, Object primaryKey, Object entity, EntityVersions.Token token) {
+        if (entity == null || primaryKey == null) {
+            return;
+        }
+        if (!versions.isCurrent(token)) {
+            return;
+        }
+        delegate.putObject(EntityVersions.key(type, primaryKey), new Entry(ResultSnapshots.snapshot(entity), token));
+    }
+
+    /**
+     * Evict the entities written by primary key, to be called once the write has been executed.
+     */
+    public void evict(Class<?> type, Iterable<?> primaryKeys) {
+        versions.evict(type);
+        stats.recordInvalidation();
+        for (Object primaryKey : primaryKeys) {
+            if (primaryKey != null) {
+                delegate.removeObject(EntityVersions.key(type, primaryKey));
+            }
+        }
+    }
+
+    /**
+     * Invalidate the entities of the given tables, all entities when no table is given.
+     */
+    public void invalidate(Collection<String> tables) {
+        versions.invalidate(tables);
+        stats.recordInvalidation();
+    }
+
+    public void clear() {
+        invalidate(null);
+        delegate.clear();
+    }
+
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    private static final class Entry {
+        private final Object entity;
+        private final EntityVersions.Token token;
+
+        private Entry(Object entity, EntityVersions.Token token) {
+            this.entity = entity;
+            this.token = token;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions that caches keyed by entity class and primary key depend on, shared by
+ * {@link EntityCache} and {@link NegativeCache}.
+ * <p>Writes with unknown primary keys advance the version of the entity table; evictions by
+ * primary key advance the version of the entity class, so that a load which raced an eviction
+ * is not cached. A {@link Token} taken before a load tells whether either happened since.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class EntityVersions {
+
+    /** Versions of entity tables, advanced by writes with unknown primary keys */
+    private final TableVersions tableWrites = new TableVersions();
+    /** Versions of entity classes, advanced by evictions to reject loads that raced them */
+    private final ConcurrentHashMap<String, AtomicLong> evictions = new ConcurrentHashMap<String, AtomicLong>();
+
+    /**
+     * Capture the versions a load of the entity depends on, before the load is run.
+     */
+    public Token token(Class<?> type, String table) {
+        AtomicLong eviction = eviction(type);
+        return new Token(tableWrites.snapshot(Collections.singleton(table)), eviction, eviction.get());
+    }
+
+    /**
+     * Whether neither the table nor the class of the token was written since it was taken.
+     */
+    boolean isCurrent(Token token) {
+        return tableWrites.isCurrent(token.tableWrites) && token.eviction.get() == token.evictionStamp;
+    }
+
+    /**
+     * Whether the table of the token was not written since it was taken; evictions remove the
+     * entries they concern themselves.
+     */
+    boolean isTableCurrent(Token token) {
+        return tableWrites.isCurrent(token.tableWrites);
+    }
+
+    void evict(Class<?> type) {
+        eviction(type).incrementAndGet();
+    }
+
+    /**
+     * Mark the given tables as written, all tables when none is given.
+     */
+    void invalidate(Collection<String> tables) {
+        tableWrites.invalidate(tables);
+    }
+
+    static CacheKey key(Class<?> type, Object primaryKey) {
+        return new CacheKey(type, String.valueOf(primaryKey));
+    }
+
+    private AtomicLong eviction(Class<?> type) {
+        AtomicLong eviction = evictions.get(type.getName());
+        if (eviction == null) {
+            AtomicLong created = new AtomicLong();
+            eviction = evictions.putIfAbsent(type.getName(), created);
+            if (eviction == null) {
+                eviction = created;
+            }
+        }
+        return eviction;
+    }
+
+    /**
+     * Versions observed before a load, see {@link #token(Class, String)}.
+     */
+    public static final class Token {
+        private final TableVersions.Snapshot tableWrites;
+        private final AtomicLong eviction;
+        private final long evictionStamp;
+
+        private Token(TableVersions.Snapshot tableWrites, AtomicLong eviction, long evictionStamp) {
+            this.tableWrites = tableWrites;
+            this.eviction = eviction;
+            this.evictionStamp = evictionStamp;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invalidation bus over a shared append-only file, a stand-in for a real transport in tests
+ * and single-host deployments. Each node appends one line per event under a file lock and polls
+ * the file for lines appended by other nodes. The file grows without bound and is meant to be
+ * rotated by whoever owns it.
+ * <p>Line format: {@code nodeId TAB tables TAB entityClass TAB primaryKeys}, lists comma
+ * separated and every element URL-encoded.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class FileInvalidationBus implements InvalidationBus {
+
+    private static final Log LOGGER = LogFactory.getLog(FileInvalidationBus.class);
+
+    private static final long DEFAULT_POLL_INTERVAL = 200;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final FileChannel channel;
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<InvalidationListener>();
+    private final ScheduledExecutorService poller;
+    private long position;
+    private byte[] partial = new byte[0];
+
+    public FileInvalidationBus(Path file) {
+        this(file, DEFAULT_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Events appended before this node started are skipped.
+     */
+    public FileInvalidationBus(Path file, long pollInterval, TimeUnit unit) {
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.position = channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open invalidation file " + file, e);
+        }
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "easyjdbc-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.poller.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, unit);
+    }
+
+    @Override
+    public void publish(InvalidationEvent event) {
+        String line = nodeId + '\t' + join(event.getTables()) + '\t'
+                + (event.getEntityClass() != null ? encode(event.getEntityClass()) : "") + '\t'
+                + join(event.getPrimaryKeys()) + '\n';
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        synchronized (FileInvalidationBus.class) {
+            try {
+                FileLock lock = channel.lock();
+                try {
+                    long end = channel.size();
+                    while (buffer.hasRemaining()) {
+                        end += channel.write(buffer, end);
+                    }
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Publishing cache invalidation failed: " + event, e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+        listeners.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Closing invalidation file failed", e);
+        }
+    }
+
+    /**
+     * Read and dispatch the lines appended since the last poll.
+     */
+    synchronized void poll() {
+        try {
+            long size = channel.size();
+            if (size <= position) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size - position, Integer.MAX_VALUE));
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    break;
+                }
+            }
+            position += buffer.position();
+            byte[] bytes = new byte[partial.length + buffer.position()];
+            System.arraycopy(partial, 0, bytes, 0, partial.length);
+            System.arraycopy(buffer.array(), 0, bytes, partial.length, buffer.position());
+            int start = 0;
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] == '\n') {
+                    dispatch(new String(bytes, start, i - start, StandardCharsets.UTF_8));
+                    start = i + 1;
+                }
+            }
+            partial = Arrays.copyOfRange(bytes, start, bytes.length);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Polling cache invalidations failed", e);
+        }
+    }
+
+    private void dispatch(String line) {
+        String[] parts = line.split("\t", -1);
+        if (parts.length != 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        InvalidationEvent event = new InvalidationEvent(split(parts[1]),
+                parts[2].isEmpty() ? null : decode(parts[2]), split(parts[3]));
+        for (InvalidationListener listener : listeners) {
+            listener.onInvalidation(event);
+        }
+    }
+
+    private static String join(Collection<String> values) {
+        StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(encode(value));
+        }
+        return sb.toString();
+    }
+
+    private static List<String> split(String values) {
+        List<String> list = new ArrayList<String>();
+        if (!values.isEmpty()) {
+            for (String value : values.split(",")) {
+                list.add(decode(value));
+            }
+        }
+        return list;
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+/**
+ * Transport of cache invalidations between nodes, so that each node can keep a local cache
+ * coherent without a central cache server.
+ * <p>Events published by a node are delivered to the listeners of every other node; a node
+ * never receives its own events.
+ * @author huipei.x
+ * @since 2.1.0
+ * @see LoopbackInvalidationBus
+ * @see FileInvalidationBus
+ */
+public interface InvalidationBus {
+
+    void publish(InvalidationEvent event);
+
+    void subscribe(InvalidationListener listener);
+
+    void close();
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A write observed by one node, to be applied to the caches of the other nodes.
+ * <p>Carries the tables written and, for writes by primary key, the entity class and the
+ * primary keys; an event without tables invalidates everything.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class InvalidationEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Set<String> tables;
+    private final String entityClass;
+    private final List<String> primaryKeys;
+
+    public InvalidationEvent(Collection<String> tables, String entityClass, Collection<?> primaryKeys) {
+        this.tables = tables == null ? Collections.<String>emptySet()
+                : Collections.unmodifiableSet(new LinkedHashSet<String>(tables));
+        this.entityClass = entityClass;
+        List<String> keys = new ArrayList<String>();
+        if (primaryKeys != null) {
+            for (Object primaryKey : primaryKeys) {
+                if (primaryKey != null) {
+                    keys.add(String.valueOf(primaryKey));
+                }
+            }
+        }
+        this.primaryKeys = Collections.unmodifiableList(keys);
+    }
+
+    public static InvalidationEvent tables(Collection<String> tables) {
+        return new InvalidationEvent(tables, null, null);
+    }
+
+    public static InvalidationEvent entities(Collection<String> tables, Class<?> entityClass, Collection<?> primaryKeys) {
+        return new InvalidationEvent(tables, entityClass.getName(), primaryKeys);
+    }
+
+    public static InvalidationEvent all() {
+        return new InvalidationEvent(null, null, null);
+    }
+
+    public Set<String> getTables() {
+        return tables;
+    }
+
+    public String getEntityClass() {
+        return entityClass;
+    }
+
+    public List<String> getPrimaryKeys() {
+        return primaryKeys;
+    }
+
+    public boolean isAll() {
+        return tables.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "InvalidationEvent{tables=" + tables + ", entityClass=" + entityClass + ", primaryKeys=" + primaryKeys + "}";
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-JVM invalidation bus delivering events synchronously. Nodes created with {@link #connect()}
+ * share the bus of the node they were created from, which lets tests run several nodes in one JVM.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class LoopbackInvalidationBus implements InvalidationBus {
+
+    private final List<LoopbackInvalidationBus> nodes;
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<InvalidationListener>();
+
+    public LoopbackInvalidationBus() {
+        this(new CopyOnWriteArrayList<LoopbackInvalidationBus>());
+    }
+
+    private LoopbackInvalidationBus(List<LoopbackInvalidationBus> nodes) {
+        this.nodes = nodes;
+        this.nodes.add(this);
+    }
+
+    /**
+     * Another node on the same bus.
+     */
+    public LoopbackInvalidationBus connect() {
+        return new LoopbackInvalidationBus(nodes);
+    }
+
+    @Override
+    public void publish(InvalidationEvent event) {
+        for (LoopbackInvalidationBus node : nodes) {
+            if (node == this) {
+                continue;
+            }
+            for (InvalidationListener listener : node.listeners) {
+                listener.onInvalidation(event);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        nodes.remove(this);
+        listeners.clear();
+    }
+}
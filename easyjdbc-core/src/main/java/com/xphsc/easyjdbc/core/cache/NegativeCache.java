@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of primary keys known not to exist, so repeated lookups of missing entities
+ * do not each cost a round trip.
+ * <p>Entries expire after a short time-to-live. Inserts that know the primary keys they create
+ * evict exactly those entries, see {@link #evict(Class, Iterable)}; any other write to an entity
+ * table invalidates the misses recorded for that table, see {@link #invalidate(Collection)}.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class NegativeCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    public static final long DEFAULT_TTL_SECONDS = 30;
+
+    private final Cache delegate;
+    private final long ttlNanos;
+    private final EntityVersions versions = new EntityVersions();
+    private final CacheStats stats;
+
+    public NegativeCache() {
+        this(DEFAULT_TTL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public NegativeCache(long ttl, TimeUnit unit) {
+        this(new SegmentedLruCache("NegativeCache", DEFAULT_MAX_ENTRIES), ttl, unit);
+    }
+
+    public NegativeCache(Cache delegate, long ttl, TimeUnit unit) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("Negative cache ttl must be positive: " + ttl);
+        }
+        this.delegate = delegate;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.stats = CacheStats.of(delegate.getId());
+    }
+
+    public String getId() {
+        return delegate.getId();
+    }
+
+    public long getTtl(TimeUnit unit) {
+        return unit.convert(ttlNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Capture the versions a primary key lookup depends on, before the lookup is run.
+     */
+    public EntityVersions.Token token(Class<?> type, String table) {
+        return versions.token(type, table);
+    }
+
+    /**
+     * Whether the entity is known not to exist.
+     */
+    public boolean isMissing(Class<?> type, Object primaryKey) {
+        Object key = EntityVersions.key(type, primaryKey);
+        Object object = delegate.getOject(key);
+        if (!(object instanceof Entry)) {
+            stats.recordMiss();
+            return false;
+        }
+        Entry entry = (Entry) object;
+        if (System.nanoTime() - entry.expiresAt >= 0 || !versions.isTableCurrent(entry.token)) {
+            delegate.removeObject(key);
+            stats.recordMiss();
+            return false;
+        }
+        stats.recordHit();
+        return true;
+    }
+
+    /**
+     * Remember a lookup that found nothing, unless a write touched its table or class after the
+     * token was taken.
+     */
+    public void put(Class<?> type, Object primaryKey, EntityVersions.Token token) {
+        if (primaryKey == null) {
+            return;
+        }
+        if (!versions.isCurrent(token)) {
+            return;
+        }
+        delegate.putObject(EntityVersions.key(type, primaryKey), new Entry(System.nanoTime() + ttlNanos, token));
+    }
+
+    /**
+     * Evict the misses of the given primary keys, to be called once they have been inserted.
+     */
+    public void evict(Class<?> type, Iterable<?> primaryKeys) {
+        versions.evict(type);
+        stats.recordInvalidation();
+        for (Object primaryKey : primaryKeys) {
+            if (primaryKey != null) {
+                delegate.removeObject(EntityVersions.key(type, primaryKey));
+            }
+        }
+    }
+
+    /**
+     * Invalidate the misses of the given tables, all misses when no table is given.
+     */
+    public void invalidate(Collection<String> tables) {
+        versions.invalidate(tables);
+        stats.recordInvalidation();
+    }
+
+    public void clear() {
+        invalidate(null);
+        delegate.clear();
+    }
+
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    private static final class Entry {
+        private final long expiresAt;
+        private final EntityVersions.Token token;
+
+        private Entry(long expiresAt, EntityVersions.Token token) {
+            this.expiresAt = expiresAt;
+            this.token = token;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default {@link Weigher}: a cheap estimate of the heap retained by cached query results.
+ * Collections are sampled rather than walked, so weighing a large result list stays O(1).
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class ObjectWeigher implements Weigher {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 8;
+    private static final int SAMPLE_SIZE = 8;
+    private static final int MAX_DEPTH = 3;
+
+    private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<Class<?>, Field[]>();
+
+    @Override
+    public long weigh(Object key, Object value) {
+        if (value instanceof TableScopedCache.Entry) {
+            value = ((TableScopedCache.Entry) value).getValue();
+        }
+        return OBJECT_HEADER + estimate(key, 0) + estimate(value, 0);
+    }
+
+    protected long estimate(Object object, int depth) {
+        if (object == null) {
+            return 0;
+        }
+        if (object instanceof CharSequence) {
+            return 40 + 2L * ((CharSequence) object).length();
+        }
+        if (object instanceof Number || object instanceof Boolean
+                || object instanceof Character || object instanceof java.util.Date
+                || object.getClass().isEnum()) {
+            return 24;
+        }
+        if (object instanceof byte[]) {
+            return OBJECT_HEADER + ((byte[]) object).length;
+        }
+        if (object instanceof Object[]) {
+            Object[] array = (Object[]) object;
+            List<Object> list = new ArrayList<Object>(array.length);
+            for (Object element : array) {
+                list.add(element);
+            }
+            return estimateCollection(list, depth);
+        }
+        if (object instanceof Collection) {
+            return estimateCollection((Collection<?>) object, depth);
+        }
+        if (object instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            if (depth >= MAX_DEPTH || map.isEmpty()) {
+                return 48 + 32L * map.size();
+            }
+            long sampled = 0;
+            int count = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                sampled += 32 + estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+                if (++count == SAMPLE_SIZE) {
+                    break;
+                }
+            }
+            return 48 + sampled * map.size() / count;
+        }
+        if (object.getClass().getName().startsWith("java.")) {
+            return 32;
+        }
+        return estimateBean(object, depth);
+    }
+
+    private long estimateCollection(Collection<?> collection, int depth) {
+        int size = collection.size();
+        if (size == 0 || depth >= MAX_DEPTH) {
+            return 40 + (long) REFERENCE * size;
+        }
+        long sampled = 0;
+        int count = 0;
+        Iterator<?> iterator = collection.iterator();
+        while (iterator.hasNext() && count < SAMPLE_SIZE) {
+            sampled += estimate(iterator.next(), depth + 1);
+            count++;
+        }
+        return 40 + (long) REFERENCE * size + sampled * size / count;
+    }
+
+    private long estimateBean(Object bean, int depth) {
+        Field[] fields = fields(bean.getClass());
+        long size = OBJECT_HEADER + (long) REFERENCE * fields.length;
+        if (depth >= MAX_DEPTH) {
+            return size;
+        }
+        for (Field field : fields) {
+            if (field.getType().isPrimitive()) {
+                continue;
+            }
+            try {
+                size += estimate(field.get(bean), depth + 1);
+            } catch (IllegalAccessException e) {
+                // unreadable field, the reference slot is already counted
+            }
+        }
+        return size;
+    }
+
+    private static Field[] fields(Class<?> type) {
+        Field[] fields = FIELDS.get(type);
+        if (fields != null) {
+            return fields;
+        }
+        List<Field> list = new ArrayList<Field>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    list.add(field);
+                } catch (RuntimeException e) {
+                    // inaccessible on this platform, ignore
+                }
+            }
+        }
+        fields = list.toArray(new Field[list.size()]);
+        FIELDS.putIfAbsent(type, fields);
+        return fields;
+    }
+}
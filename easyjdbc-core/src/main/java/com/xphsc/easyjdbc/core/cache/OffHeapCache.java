@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache keeping values serialized off-heap, in the compact row format of {@link RowCodec}. Only
+ * keys and small headers stay on the heap, so large cached result lists add no GC pressure;
+ * values are decoded on every read.
+ * <p>Off-heap memory is an arena of direct slabs, allocated as the cache fills and then reused:
+ * a value is written to fixed-size pages of the slabs, which are explicitly returned to a free
+ * list when the value is removed or evicted. No direct buffer is allocated per value.
+ * <p>Meant as the L2 of a {@link TieredCache}. Least recently used values are evicted once the
+ * off-heap capacity is exceeded; values that cannot be encoded are not cached.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class OffHeapCache implements Cache {
+
+    public static final long DEFAULT_CAPACITY = 256L * 1024 * 1024;
+    public static final int DEFAULT_PAGE_SIZE = 1024;
+    private static final int SLAB_SIZE = 16 * 1024 * 1024;
+
+    private final String id;
+    private final long capacity;
+    private final int pageSize;
+    private final int pagesPerSlab;
+    private final int maxPages;
+    private final LinkedHashMap<Object, Slot> slots = new LinkedHashMap<Object, Slot>(16, 0.75f, true);
+    private final List<ByteBuffer> slabs = new ArrayList<ByteBuffer>();
+    private final ReentrantLock reentrantLock = new ReentrantLock();
+    private final CacheStats stats;
+    /** Pages returned by removed values, reused before new pages are carved out of the slabs */
+    private int[] freePages = new int[64];
+    private int freeCount;
+    /** Pages carved out of the slabs so far */
+    private int allocatedPages;
+    private int usedPages;
+
+    public OffHeapCache(String id) {
+        this(id, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity maximum number of off-heap bytes held
+     */
+    public OffHeapCache(String id, long capacity) {
+        this(id, capacity, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param capacity maximum number of off-heap bytes held
+     * @param pageSize bytes of the pages values are written to, a value takes whole pages
+     */
+    public OffHeapCache(String id, long capacity, int pageSize) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        if (pageSize <= 0 || pageSize > capacity || pageSize > SLAB_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + Math.min(capacity, SLAB_SIZE));
+        }
+        this.id = id;
+        this.capacity = capacity;
+        this.pageSize = pageSize;
+        this.pagesPerSlab = SLAB_SIZE / pageSize;
+        this.maxPages = (int) Math.min(Integer.MAX_VALUE, capacity / pageSize);
+        this.stats = CacheStats.of(id);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        TableScopedCache.Entry header = null;
+        Object payload = value;
+        if (value instanceof TableScopedCache.Entry) {
+            header = ((TableScopedCache.Entry) value).withValue(null);
+            payload = ((TableScopedCache.Entry) value).getValue();
+        }
+        byte[] bytes = RowCodec.encode(payload);
+        if (bytes == null || pageCount(bytes.length) > maxPages) {
+            removeObject(key);
+            return;
+        }
+        reentrantLock.lock();
+        try {
+            detach(key);
+            int[] pages = allocate(pageCount(bytes.length));
+            for (int i = 0, offset = 0; i < pages.length; i++, offset += pageSize) {
+                page(pages[i]).put(bytes, offset, Math.min(pageSize, bytes.length - offset));
+            }
+            slots.put(key, new Slot(header, pages, bytes.length));
+        } finally {
+            reentrantLock.unlock();
+        }
+    }
+
+    @Override
+    public Object getOject(Object key) {
+        Slot slot;
+        byte[] bytes;
+        reentrantLock.lock();
+        try {
+            slot = slots.get(key);
+            if (slot == null) {
+                return null;
+            }
+            bytes = new byte[slot.length];
+            for (int i = 0, offset = 0; i < slot.pages.length; i++, offset += pageSize) {
+                page(slot.pages[i]).get(bytes, offset, Math.min(pageSize, slot.length - offset));
+            }
+        } finally {
+            reentrantLock.unlock();
+        }
+        Object value = RowCodec.decode(ByteBuffer.wrap(bytes));
+        return slot.header != null ? slot.header.withValue(value) : value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        reentrantLock.lock();
+        try {
+            detach(key);
+        } finally {
+            reentrantLock.unlock();
+        }
+        return null;
+    }
+
+    /**
+     * Remove all values, their pages are kept for reuse.
+     */
+    @Override
+    public void clear() {
+        reentrantLock.lock();
+        try {
+            for (Slot slot : slots.values()) {
+                free(slot);
+            }
+            slots.clear();
+        } finally {
+            reentrantLock.unlock();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        reentrantLock.lock();
+        try {
+            return slots.size();
+        } finally {
+            reentrantLock.unlock();
+        }
+    }
+
+    /**
+     * Off-heap bytes of the pages currently held by values.
+     */
+    public long getUsed() {
+        reentrantLock.lock();
+        try {
+            return (long) usedPages * pageSize;
+        } finally {
+            reentrantLock.unlock();
+        }
+    }
+
+    /**
+     * Off-heap bytes of the slabs allocated so far.
+     */
+    public long getReserved() {
+        reentrantLock.lock();
+        try {
+            long reserved = 0;
+            for (ByteBuffer slab : slabs) {
+                reserved += slab.capacity();
+            }
+            return reserved;
+        } finally {
+            reentrantLock.unlock();
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public ReentrantLock getReadWriteLock() {
+        return reentrantLock;
+    }
+
+    private int pageCount(int length) {
+        return Math.max(1, (length + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Take the given number of pages, evicting the least recently used values until they are available.
+     */
+    private int[] allocate(int count) {
+        Iterator<Slot> eldest = slots.values().iterator();
+        while (freeCount + maxPages - allocatedPages < count && eldest.hasNext()) {
+            free(eldest.next());
+            eldest.remove();
+            stats.recordEviction();
+        }
+        int[] pages = new int[count];
+        for (int i = 0; i < count; i++) {
+            pages[i] = freeCount > 0 ? freePages[--freeCount] : carve();
+        }
+        usedPages += count;
+        return pages;
+    }
+
+    private int carve() {
+        int page = allocatedPages++;
+        if (page / pagesPerSlab == slabs.size()) {
+            int pages = Math.min(pagesPerSlab, maxPages - page);
+            slabs.add(ByteBuffer.allocateDirect(pages * pageSize));
+        }
+        return page;
+    }
+
+    /**
+     * A view of the page positioned at its start.
+     */
+    private ByteBuffer page(int page) {
+        ByteBuffer slab = slabs.get(page / pagesPerSlab).duplicate();
+        slab.position((page % pagesPerSlab) * pageSize);
+        return slab;
+    }
+
+    private void free(Slot slot) {
+        if (freeCount + slot.pages.length > freePages.length) {
+            freePages = Arrays.copyOf(freePages, Math.max(freePages.length * 2, freeCount + slot.pages.length));
+        }
+        for (int page : slot.pages) {
+            freePages[freeCount++] = page;
+        }
+        usedPages -= slot.pages.length;
+    }
+
+    private void detach(Object key) {
+        Slot slot = slots.remove(key);
+        if (slot != null) {
+            free(slot);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Cache)) {
+            return false;
+        }
+        if (obj == this) {
+            return true;
+        }
+        return getId().equals(((Cache) obj).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getId().hashCode();
+    }
+
+    private static final class Slot {
+        private final TableScopedCache.Entry header;
+        private final int[] pages;
+        private final int length;
+
+        private Slot(TableScopedCache.Entry header, int[] pages, int length) {
+            this.header = header;
+            this.pages = pages;
+            this.length = length;
+        }
+    }
+}
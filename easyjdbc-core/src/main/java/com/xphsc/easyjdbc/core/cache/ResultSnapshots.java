@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import com.xphsc.easyjdbc.core.metadata.DynamicEntityElement;
+import com.xphsc.easyjdbc.core.metadata.DynamicFieldElement;
+import com.xphsc.easyjdbc.core.metadata.ElementResolver;
+import com.xphsc.easyjdbc.core.metadata.EntityCreator;
+import com.xphsc.easyjdbc.core.metadata.EntityElement;
+import com.xphsc.easyjdbc.core.metadata.FieldElement;
+import com.xphsc.easyjdbc.core.transform.CompactRow;
+import com.xphsc.easyjdbc.util.Jdbcs;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Immutable snapshots of cached query results, and isolated copies of them for each reader.
+ * <p>A snapshot is a deep copy taken when a result is cached, with lists frozen, so that the
+ * caller that loaded the result may keep mutating it. Readers get their own copy of the
+ * snapshot: lists and rows are copied, entities are cloned through the read and write methods
+ * of their {@link FieldElement}s, or their declared fields for classes that are not mapped, or
+ * rebuilt through their {@link EntityCreator} for classes built through a canonical constructor,
+ * and mutable values such as dates and byte arrays are cloned. Strings, numbers, enums, entities
+ * that have a canonical constructor but no setter and no non-final field, and other immutable
+ * values are shared.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class ResultSnapshots {
+
+    private static final int MAX_DEPTH = 16;
+
+    private static final Map<Class<?>, EntityCopier> COPIERS = new ConcurrentHashMap<Class<?>, EntityCopier>();
+
+    private ResultSnapshots() {
+    }
+
+    /**
+     * An immutable deep copy of a result, to be cached in its place.
+     */
+    public static Object snapshot(Object value) {
+        Object copy = copy(value, 0);
+        return copy instanceof List ? Collections.unmodifiableList((List<?>) copy) : copy;
+    }
+
+    /**
+     * A copy of a snapshot for one reader, lists and rows in it are mutable again.
+     */
+    public static Object copy(Object snapshot) {
+        return copy(snapshot, 0);
+    }
+
+    private static Object copy(Object value, int depth) {
+        if (value == null || isImmutable(value.getClass()) || depth > MAX_DEPTH) {
+            return value;
+        }
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            List<Object> copy = new ArrayList<Object>(list.size());
+            for (Object element : list) {
+                copy.add(copy(element, depth + 1));
+            }
+            return copy;
+        }
+        if (value instanceof CompactRow) {
+            return ((CompactRow) value).copy(element -> copy(element, depth + 1));
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            @SuppressWarnings("unchecked")
+            Map<Object, Object> copy = map instanceof LinkedCaseInsensitiveMap
+                    ? (Map) new LinkedCaseInsensitiveMap<Object>(map.size())
+                    : new LinkedHashMap<Object, Object>(map.size() * 4 / 3 + 1);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(entry.getKey(), copy(entry.getValue(), depth + 1));
+            }
+            return copy;
+        }
+        if (isEntity(value.getClass())) {
+            return copier(value.getClass()).copy(value, depth);
+        }
+        return value;
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return type == String.class || type == Long.class || type == Integer.class || type == Boolean.class
+                || type == Double.class || type == Float.class || type == Short.class || type == Byte.class
+                || type == Character.class || type.isEnum() || type.getName().startsWith("java.time.")
+                || type == java.math.BigDecimal.class || type == java.math.BigInteger.class;
+    }
+
+    private static boolean isEntity(Class<?> type) {
+        return !type.isArray() && !type.isPrimitive() && !type.getName().startsWith("java");
+    }
+
+    private static EntityCopier copier(Class<?> type) {
+        EntityCopier copier = COPIERS.get(type);
+        if (copier == null) {
+            copier = new EntityCopier(type);
+            COPIERS.put(type, copier);
+        }
+        return copier;
+    }
+
+    /**
+     * Clones entities of one class through the accessors mapped for it, or through its canonical
+     * constructor when it has one.
+     */
+    private static final class EntityCopier {
+        private final Class<?> type;
+        private final EntityCreator creator;
+        private final boolean shared;
+        private final Field[] arguments;
+        private final Function<Object, Object>[] getters;
+        private final BiConsumer<Object, Object>[] setters;
+        private final Field[] fields;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private EntityCopier(Class<?> type) {
+            this.type = type;
+            this.creator = EntityCreator.of(type);
+            if (creator != null) {
+                Field[] declared = declaredFields(type);
+                this.shared = !hasSetter(type) && !hasMutableField(declared);
+                this.arguments = shared ? null : argumentFields(type, creator, declared);
+                this.getters = null;
+                this.setters = null;
+                this.fields = shared ? null : remainingFields(declared, arguments);
+                return;
+            }
+            this.shared = false;
+            this.arguments = null;
+            List<Function<Object, Object>> reads = new ArrayList<Function<Object, Object>>();
+            List<BiConsumer<Object, Object>> writes = new ArrayList<BiConsumer<Object, Object>>();
+            EntityElement entityElement = ElementResolver.ENTITIES.get(type.getName());
+            DynamicEntityElement dynamicEntityElement = ElementResolver.DYNAMIC_ENTITIES.get(type.getName());
+            if (entityElement != null) {
+                for (FieldElement fieldElement : entityElement.getFieldElements().values()) {
+                    if (fieldElement.getGetter() != null && fieldElement.getSetter() != null) {
+                        reads.add(fieldElement.getGetter());
+                        writes.add(fieldElement.getSetter());
+                    }
+                }
+            } else if (dynamicEntityElement != null) {
+                for (DynamicFieldElement fieldElement : dynamicEntityElement.getDynamicFieldElements().values()) {
+                    reads.add(fieldElement.getGetter());
+                    writes.add(fieldElement.getSetter());
+                }
+            }
+            this.getters = reads.toArray(new Function[reads.size()]);
+            this.setters = writes.toArray(new BiConsumer[writes.size()]);
+            this.fields = getters.length == 0 ? declaredFields(type) : null;
+        }
+
+        private Object copy(Object entity, int depth) {
+            if (shared) {
+                return entity;
+            }
+            try {
+                Object copy;
+                if (creator != null) {
+                    Object[] values = new Object[arguments.length];
+                    for (int i = 0; i < arguments.length; i++) {
+                        values[i] = ResultSnapshots.copy(arguments[i].get(entity), depth + 1);
+                    }
+                    copy = creator.newInstance(values);
+                } else {
+                    copy = Jdbcs.newInstance(type);
+                }
+                if (fields != null) {
+                    for (Field field : fields) {
+                        field.set(copy, ResultSnapshots.copy(field.get(entity), depth + 1));
+                    }
+                } else {
+                    for (int i = 0; i < getters.length; i++) {
+                        setters[i].accept(copy, ResultSnapshots.copy(getters[i].apply(entity), depth + 1));
+                    }
+                }
+                return copy;
+            } catch (Exception e) {
+                throw new IllegalStateException("Failure to copy cached entity: " + type.getName(), e);
+            }
+        }
+
+        private static boolean hasSetter(Class<?> type) {
+            for (Method method : type.getMethods()) {
+                if (!Modifier.isStatic(method.getModifiers()) && method.getParameterTypes().length == 1
+                        && method.getName().startsWith("set") && method.getDeclaringClass() != Object.class) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean hasMutableField(Field[] fields) {
+            for (Field field : fields) {
+                if (!Modifier.isFinal(field.getModifiers())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static Field[] argumentFields(Class<?> type, EntityCreator creator, Field[] fields) {
+            Field[] arguments = new Field[creator.size()];
+            for (int i = 0; i < arguments.length; i++) {
+                for (Field field : fields) {
+                    if (field.getName().equals(creator.getParameterName(i))) {
+                        arguments[i] = field;
+                        break;
+                    }
+                }
+                if (arguments[i] == null) {
+                    throw new IllegalStateException("No field for constructor property " + creator.getParameterName(i)
+                            + " of " + type.getName());
+                }
+            }
+            return arguments;
+        }
+
+        private static Field[] remainingFields(Field[] fields, Field[] arguments) {
+            List<Field> list = new ArrayList<Field>();
+            for (Field field : fields) {
+                if (!Modifier.isFinal(field.getModifiers()) && !Arrays.asList(arguments).contains(field)) {
+                    list.add(field);
+                }
+            }
+            return list.toArray(new Field[list.size()]);
+        }
+
+        private static Field[] declaredFields(Class<?> type) {
+            List<Field> list = new ArrayList<Field>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    list.add(field);
+                }
+            }
+            return list.toArray(new Field[list.size()]);
+        }
+    }
+}
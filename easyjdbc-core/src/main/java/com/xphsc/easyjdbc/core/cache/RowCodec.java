@@ -0,0 +1,641 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import com.xphsc.easyjdbc.core.metadata.EntityCreator;
+import com.xphsc.easyjdbc.core.transform.ColumnIndex;
+import com.xphsc.easyjdbc.core.transform.CompactRow;
+import com.xphsc.easyjdbc.util.Jdbcs;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact binary format of cached query results, used by {@link OffHeapCache}.
+ * <p>Lists of rows are written column-wise in schema: the column names of a list of maps, or
+ * the class and field names of a list of entities, are written once, followed by the tagged
+ * values of each row. Scalars use fixed or variable length encodings; other serializable values
+ * fall back to Java serialization.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+final class RowCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte SHORT = 6;
+    private static final byte BYTE = 7;
+    private static final byte BOOLEAN = 8;
+    private static final byte BIG_DECIMAL = 9;
+    private static final byte BIG_INTEGER = 10;
+    private static final byte DATE = 11;
+    private static final byte SQL_DATE = 12;
+    private static final byte SQL_TIME = 13;
+    private static final byte TIMESTAMP = 14;
+    private static final byte BYTES = 15;
+    private static final byte CHAR = 16;
+    private static final byte LOCAL_DATE = 17;
+    private static final byte LOCAL_TIME = 18;
+    private static final byte LOCAL_DATE_TIME = 19;
+    private static final byte ENUM = 20;
+    private static final byte LIST = 21;
+    private static final byte MAP = 22;
+    private static final byte MAP_ROWS = 23;
+    private static final byte ENTITY = 24;
+    private static final byte ENTITY_ROWS = 25;
+    private static final byte SERIALIZED = 26;
+
+    private static final int MAX_DEPTH = 16;
+
+    private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<Class<?>, Field[]>();
+
+    private RowCodec() {
+    }
+
+    /**
+     * Encode a value, null when it cannot be represented.
+     */
+    static byte[] encode(Object value) {
+        Output out = new Output();
+        try {
+            write(out, value, 0);
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    static Object decode(ByteBuffer buffer) {
+        return read(buffer);
+    }
+
+    private static void write(Output out, Object value, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new UnsupportedOperationException("Value nested too deep");
+        }
+        if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof String) {
+            out.write(STRING);
+            out.writeString((String) value);
+        } else if (value instanceof Integer) {
+            out.write(INT);
+            out.writeVarLong(zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            out.write(LONG);
+            out.writeVarLong(zigZag((Long) value));
+        } else if (value instanceof Double) {
+            out.write(DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            out.write(FLOAT);
+            out.writeVarLong(Float.floatToRawIntBits((Float) value) & 0xffffffffL);
+        } else if (value instanceof Short) {
+            out.write(SHORT);
+            out.writeVarLong(zigZag((Short) value));
+        } else if (value instanceof Byte) {
+            out.write(BYTE);
+            out.write((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.write(BOOLEAN);
+            out.write((Boolean) value ? 1 : 0);
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            out.write(BIG_DECIMAL);
+            out.writeVarLong(zigZag(decimal.scale()));
+            out.writeByteArray(decimal.unscaledValue().toByteArray());
+        } else if (value instanceof BigInteger) {
+            out.write(BIG_INTEGER);
+            out.writeByteArray(((BigInteger) value).toByteArray());
+        } else if (value instanceof java.sql.Timestamp) {
+            java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+            out.write(TIMESTAMP);
+            out.writeVarLong(zigZag(timestamp.getTime()));
+            out.writeVarLong(timestamp.getNanos());
+        } else if (value instanceof java.sql.Date) {
+            out.write(SQL_DATE);
+            out.writeVarLong(zigZag(((Date) value).getTime()));
+        } else if (value instanceof java.sql.Time) {
+            out.write(SQL_TIME);
+            out.writeVarLong(zigZag(((Date) value).getTime()));
+        } else if (value.getClass() == Date.class) {
+            out.write(DATE);
+            out.writeVarLong(zigZag(((Date) value).getTime()));
+        } else if (value instanceof byte[]) {
+            out.write(BYTES);
+            out.writeByteArray((byte[]) value);
+        } else if (value instanceof Character) {
+            out.write(CHAR);
+            out.writeVarLong((Character) value);
+        } else if (value instanceof LocalDate) {
+            out.write(LOCAL_DATE);
+            out.writeVarLong(zigZag(((LocalDate) value).toEpochDay()));
+        } else if (value instanceof LocalTime) {
+            out.write(LOCAL_TIME);
+            out.writeVarLong(((LocalTime) value).toNanoOfDay());
+        } else if (value instanceof LocalDateTime) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            out.write(LOCAL_DATE_TIME);
+            out.writeVarLong(zigZag(dateTime.toLocalDate().toEpochDay()));
+            out.writeVarLong(dateTime.toLocalTime().toNanoOfDay());
+        } else if (value instanceof Enum) {
+            out.write(ENUM);
+            out.writeString(((Enum<?>) value).getDeclaringClass().getName());
+            out.writeString(((Enum<?>) value).name());
+        } else if (value instanceof List) {
+            writeList(out, (List<?>) value, depth);
+        } else if (value instanceof Map) {
+            out.write(MAP);
+            writeMap(out, (Map<?, ?>) value, depth);
+        } else if (isEntity(value.getClass())) {
+            out.write(ENTITY);
+            out.writeString(value.getClass().getName());
+            Field[] fields = fields(value.getClass());
+            writeNames(out, fields);
+            writeFields(out, value, fields, depth);
+        } else if (value instanceof Serializable) {
+            out.write(SERIALIZED);
+            out.writeByteArray(serialize(value));
+        } else {
+            throw new UnsupportedOperationException("Unsupported value " + value.getClass());
+        }
+    }
+
+    private static void writeList(Output out, List<?> list, int depth) {
+        Object first = list.isEmpty() ? null : list.get(0);
+        if (first instanceof Map && sameSchema(list)) {
+            Map<?, ?> schema = (Map<?, ?>) first;
+            out.write(MAP_ROWS);
+            out.write(first instanceof CompactRow ? 2 : first instanceof LinkedCaseInsensitiveMap ? 1 : 0);
+            out.writeVarLong(schema.size());
+            for (Object column : schema.keySet()) {
+                out.writeString((String) column);
+            }
+            out.writeVarLong(list.size());
+            for (Object row : list) {
+                for (Object column : ((Map<?, ?>) row).values()) {
+                    write(out, column, depth + 1);
+                }
+            }
+        } else if (first != null && isEntity(first.getClass()) && sameClass(list, first.getClass())) {
+            Field[] fields = fields(first.getClass());
+            out.write(ENTITY_ROWS);
+            out.writeString(first.getClass().getName());
+            writeNames(out, fields);
+            out.writeVarLong(list.size());
+            for (Object row : list) {
+                writeFields(out, row, fields, depth);
+            }
+        } else {
+            out.write(LIST);
+            out.writeVarLong(list.size());
+            for (Object element : list) {
+                write(out, element, depth + 1);
+            }
+        }
+    }
+
+    private static void writeMap(Output out, Map<?, ?> map, int depth) {
+        out.write(map instanceof LinkedCaseInsensitiveMap || map instanceof CompactRow ? 1 : 0);
+        out.writeVarLong(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            write(out, entry.getKey(), depth + 1);
+            write(out, entry.getValue(), depth + 1);
+        }
+    }
+
+    private static void writeNames(Output out, Field[] fields) {
+        out.writeVarLong(fields.length);
+        for (Field field : fields) {
+            out.writeString(field.getName());
+        }
+    }
+
+    private static void writeFields(Output out, Object entity, Field[] fields, int depth) {
+        for (Field field : fields) {
+            try {
+                write(out, field.get(entity), depth + 1);
+            } catch (IllegalAccessException e) {
+                throw new UnsupportedOperationException(e);
+            }
+        }
+    }
+
+    private static boolean sameSchema(List<?> list) {
+        Map<?, ?> first = (Map<?, ?>) list.get(0);
+        if (first instanceof CompactRow && sameIndex(list, (CompactRow) first)) {
+            return true;
+        }
+        Object[] columns = first.keySet().toArray();
+        for (Object column : columns) {
+            if (!(column instanceof String)) {
+                return false;
+            }
+        }
+        for (Object row : list) {
+            if (!(row instanceof Map) || row.getClass() != first.getClass()
+                    || !Arrays.equals(columns, ((Map<?, ?>) row).keySet().toArray())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameIndex(List<?> list, CompactRow first) {
+        for (Object row : list) {
+            if (!(row instanceof CompactRow) || !((CompactRow) row).isCompact()
+                    || ((CompactRow) row).getColumnIndex() != first.getColumnIndex()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameClass(Collection<?> list, Class<?> type) {
+        for (Object row : list) {
+            if (row == null || row.getClass() != type) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object read(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INT:
+                return (int) unZigZag(readVarLong(in));
+            case LONG:
+                return unZigZag(readVarLong(in));
+            case DOUBLE:
+                return Double.longBitsToDouble(in.getLong());
+            case FLOAT:
+                return Float.intBitsToFloat((int) readVarLong(in));
+            case SHORT:
+                return (short) unZigZag(readVarLong(in));
+            case BYTE:
+                return in.get();
+            case BOOLEAN:
+                return in.get() != 0;
+            case BIG_DECIMAL: {
+                int scale = (int) unZigZag(readVarLong(in));
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+            case BIG_INTEGER:
+                return new BigInteger(readBytes(in));
+            case TIMESTAMP: {
+                java.sql.Timestamp timestamp = new java.sql.Timestamp(unZigZag(readVarLong(in)));
+                timestamp.setNanos((int) readVarLong(in));
+                return timestamp;
+            }
+            case SQL_DATE:
+                return new java.sql.Date(unZigZag(readVarLong(in)));
+            case SQL_TIME:
+                return new java.sql.Time(unZigZag(readVarLong(in)));
+            case DATE:
+                return new Date(unZigZag(readVarLong(in)));
+            case BYTES:
+                return readBytes(in);
+            case CHAR:
+                return (char) readVarLong(in);
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(unZigZag(readVarLong(in)));
+            case LOCAL_TIME:
+                return LocalTime.ofNanoOfDay(readVarLong(in));
+            case LOCAL_DATE_TIME: {
+                LocalDate date = LocalDate.ofEpochDay(unZigZag(readVarLong(in)));
+                return LocalDateTime.of(date, LocalTime.ofNanoOfDay(readVarLong(in)));
+            }
+            case ENUM:
+                return readEnum(in);
+            case LIST: {
+                int size = (int) readVarLong(in);
+                List<Object> list = new ArrayList<Object>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(read(in));
+                }
+                return list;
+            }
+            case MAP: {
+                Map<Object, Object> map = newMap(in.get() != 0, 16);
+                int size = (int) readVarLong(in);
+                for (int i = 0; i < size; i++) {
+                    map.put(read(in), read(in));
+                }
+                return map;
+            }
+            case MAP_ROWS:
+                return readMapRows(in);
+            case ENTITY: {
+                Class<?> type = classForName(readString(in));
+                Field[] fields = fields(type, readNames(in));
+                EntityCreator creator = EntityCreator.of(type);
+                return readEntity(in, type, fields, creator, parameters(creator, fields));
+            }
+            case ENTITY_ROWS: {
+                Class<?> type = classForName(readString(in));
+                Field[] fields = fields(type, readNames(in));
+                EntityCreator creator = EntityCreator.of(type);
+                int[] parameters = parameters(creator, fields);
+                int size = (int) readVarLong(in);
+                List<Object> list = new ArrayList<Object>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readEntity(in, type, fields, creator, parameters));
+                }
+                return list;
+            }
+            case SERIALIZED:
+                return deserialize(readBytes(in));
+            default:
+                throw new IllegalStateException("Unknown value tag " + tag);
+        }
+    }
+
+    private static List<Object> readMapRows(ByteBuffer in) {
+        byte kind = in.get();
+        boolean caseInsensitive = kind != 0;
+        String[] columns = new String[(int) readVarLong(in)];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = readString(in);
+        }
+        int size = (int) readVarLong(in);
+        List<Object> list = new ArrayList<Object>(size);
+        if (kind == 2) {
+            ColumnIndex columnIndex = new ColumnIndex(columns);
+            for (int i = 0; i < size; i++) {
+                Object[] values = new Object[columns.length];
+                for (int j = 0; j < values.length; j++) {
+                    values[j] = read(in);
+                }
+                list.add(new CompactRow(columnIndex, values));
+            }
+            return list;
+        }
+        for (int i = 0; i < size; i++) {
+            Map<Object, Object> row = newMap(caseInsensitive, columns.length);
+            for (String column : columns) {
+                row.put(column, read(in));
+            }
+            list.add(row);
+        }
+        return list;
+    }
+
+    /**
+     * Entities built through a canonical constructor, records among them, are created from the
+     * values of its parameters, and only their other non-final fields are set afterwards.
+     */
+    private static Object readEntity(ByteBuffer in, Class<?> type, Field[] fields, EntityCreator creator, int[] parameters) {
+        if (creator == null) {
+            Object entity = Jdbcs.newInstance(type);
+            for (Field field : fields) {
+                set(entity, field, read(in));
+            }
+            return entity;
+        }
+        Object[] values = new Object[fields.length];
+        Object[] arguments = new Object[creator.size()];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = read(in);
+            if (parameters[i] >= 0) {
+                arguments[parameters[i]] = values[i];
+            }
+        }
+        Object entity = creator.newInstance(arguments);
+        for (int i = 0; i < fields.length; i++) {
+            if (parameters[i] < 0 && fields[i] != null && !Modifier.isFinal(fields[i].getModifiers())) {
+                set(entity, fields[i], values[i]);
+            }
+        }
+        return entity;
+    }
+
+    private static void set(Object entity, Field field, Object value) {
+        if (field != null && value != null) {
+            try {
+                field.set(entity, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static int[] parameters(EntityCreator creator, Field[] fields) {
+        if (creator == null) {
+            return null;
+        }
+        int[] parameters = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            parameters[i] = -1;
+            for (int j = 0; fields[i] != null && j < creator.size(); j++) {
+                if (creator.getParameterName(j).equals(fields[i].getName())) {
+                    parameters[i] = j;
+                    break;
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static String[] readNames(ByteBuffer in) {
+        String[] names = new String[(int) readVarLong(in)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = readString(in);
+        }
+        return names;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readEnum(ByteBuffer in) {
+        Class type = classForName(readString(in));
+        return Enum.valueOf(type, readString(in));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> newMap(boolean caseInsensitive, int size) {
+        if (caseInsensitive) {
+            return (Map) new LinkedCaseInsensitiveMap<Object>(size);
+        }
+        return new LinkedHashMap<Object, Object>(size * 4 / 3 + 1);
+    }
+
+    private static boolean isEntity(Class<?> type) {
+        return !type.isArray() && !type.isPrimitive() && !type.getName().startsWith("java")
+                && !(Collection.class.isAssignableFrom(type)) && !(Map.class.isAssignableFrom(type));
+    }
+
+    private static Field[] fields(Class<?> type) {
+        Field[] fields = FIELDS.get(type);
+        if (fields == null) {
+            List<Field> list = new ArrayList<Field>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    list.add(field);
+                }
+            }
+            fields = list.toArray(new Field[list.size()]);
+            FIELDS.put(type, fields);
+        }
+        return fields;
+    }
+
+    private static Field[] fields(Class<?> type, String[] names) {
+        Field[] declared = fields(type);
+        Field[] fields = new Field[names.length];
+        for (int i = 0; i < names.length; i++) {
+            fields[i] = i < declared.length && declared[i].getName().equals(names[i]) ? declared[i] : find(declared, names[i]);
+        }
+        return fields;
+    }
+
+    private static Field find(Field[] fields, String name) {
+        for (Field field : fields) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> classForName(String name) {
+        try {
+            return Class.forName(name, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            try {
+                return Class.forName(name);
+            } catch (ClassNotFoundException ex) {
+                throw new IllegalStateException("Cached class not found: " + name, ex);
+            }
+        }
+    }
+
+    private static byte[] serialize(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            throw new UnsupportedOperationException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Cached value cannot be deserialized", e);
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.get(bytes);
+        return bytes;
+    }
+
+    private static String readString(ByteBuffer in) {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Growable byte buffer with the variable length encodings of the format.
+     */
+    private static final class Output extends ByteArrayOutputStream {
+
+        private Output() {
+            super(256);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7fL) != 0) {
+                write((int) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        void writeByteArray(byte[] bytes) {
+            writeVarLong(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeString(String value) {
+            writeByteArray(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
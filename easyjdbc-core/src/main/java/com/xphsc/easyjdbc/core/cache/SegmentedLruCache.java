@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache with a segmented LRU eviction policy.
+ * <p>New entries are admitted to a probation segment; an entry hit a second time is promoted
+ * to the protected segment. Victims are taken from the probation segment first, so a burst of
+ * one-off queries cannot flush the frequently used results. The cache is bounded both by
+ * entry count and by the estimated weight reported by the {@link Weigher}.
+ * <p>Keys are spread by hash over independently locked partitions, each holding its share of
+ * the entry limit, so concurrent reads of different keys do not contend on one lock. The weight
+ * limit applies to the cache as a whole: an entry may weigh up to the whole limit, the entries of
+ * its own partition being evicted first to make room for it, then those of the other partitions.
+ * An entry heavier than the whole limit is not cached.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class SegmentedLruCache implements Cache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_MAX_WEIGHT = 64L * 1024 * 1024;
+    private static final float PROTECTED_RATIO = 0.8f;
+    private static final int MAX_PARTITIONS = 16;
+    private static final int MIN_PARTITION_ENTRIES = 16;
+
+    private final String id;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final Weigher weigher;
+    private final CacheStats stats;
+    private final Partition[] partitions;
+    private final AtomicLong weight = new AtomicLong();
+    private final ReentrantLock reentrantLock = new ReentrantLock();
+
+    public SegmentedLruCache(String id) {
+        this(id, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT);
+    }
+
+    public SegmentedLruCache(String id, int maxEntries) {
+        this(id, maxEntries, Long.MAX_VALUE);
+    }
+
+    public SegmentedLruCache(String id, int maxEntries, long maxWeight) {
+        this(id, maxEntries, maxWeight, new ObjectWeigher());
+    }
+
+    public SegmentedLruCache(String id, int maxEntries, long maxWeight, Weigher weigher) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("MaxEntries must be greater than 0");
+        }
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("MaxWeight must be greater than 0");
+        }
+        this.id = id;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.stats = CacheStats.of(id);
+        int count = Math.min(MAX_PARTITIONS, Integer.highestOneBit(Math.max(1, maxEntries / MIN_PARTITION_ENTRIES)));
+        this.partitions = new Partition[count];
+        for (int i = 0; i < count; i++) {
+            this.partitions[i] = new Partition(maxEntries / count + (i < maxEntries % count ? 1 : 0));
+        }
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        long entryWeight = maxWeight == Long.MAX_VALUE ? 0 : weigher.weigh(key, value);
+        Partition partition = partition(key);
+        partition.put(key, value, entryWeight);
+        for (int i = 0; i < partitions.length && weight.get() > maxWeight; i++) {
+            if (partitions[i] != partition) {
+                partitions[i].trim();
+            }
+        }
+    }
+
+    @Override
+    public Object getOject(Object key) {
+        return partition(key).get(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        return partition(key).remove(key);
+    }
+
+    @Override
+    public void clear() {
+        for (Partition partition : partitions) {
+            partition.clear();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Partition partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    /**
+     * Estimated weight of all entries currently held.
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Lock for callers coordinating compound operations; the cache itself locks per partition.
+     */
+    @Override
+    public ReentrantLock getReadWriteLock() {
+        return reentrantLock;
+    }
+
+    private Partition partition(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        hash ^= hash >>> 16;
+        return partitions[hash & (partitions.length - 1)];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Cache)) {
+            return false;
+        }
+        if (obj == this) {
+            return true;
+        }
+        Cache cache = (Cache) obj;
+        return getId().equals(cache.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getId().hashCode();
+    }
+
+    private final class Partition {
+        private final int maxEntries;
+        private final int protectedCapacity;
+        private final LinkedHashMap<Object, Entry> probation = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+        private final LinkedHashMap<Object, Entry> protectedSegment = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Partition(int maxEntries) {
+            this.maxEntries = maxEntries;
+            this.protectedCapacity = Math.max(1, (int) (maxEntries * PROTECTED_RATIO));
+        }
+
+        private void put(Object key, Object value, long entryWeight) {
+            lock.lock();
+            try {
+                detach(key);
+                if (entryWeight > maxWeight) {
+                    return;
+                }
+                probation.put(key, new Entry(value, entryWeight));
+                weight.addAndGet(entryWeight);
+                evict(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Object get(Object key) {
+            lock.lock();
+            try {
+                Entry entry = protectedSegment.get(key);
+                if (entry != null) {
+                    return entry.value;
+                }
+                entry = probation.remove(key);
+                if (entry == null) {
+                    return null;
+                }
+                protectedSegment.put(key, entry);
+                if (protectedSegment.size() > protectedCapacity) {
+                    Iterator<Map.Entry<Object, Entry>> eldest = protectedSegment.entrySet().iterator();
+                    Map.Entry<Object, Entry> demoted = eldest.next();
+                    eldest.remove();
+                    probation.put(demoted.getKey(), demoted.getValue());
+                }
+                return entry.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Object remove(Object key) {
+            lock.lock();
+            try {
+                Entry entry = detach(key);
+                return entry == null ? null : entry.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                long cleared = 0;
+                for (Entry entry : probation.values()) {
+                    cleared += entry.weight;
+                }
+                for (Entry entry : protectedSegment.values()) {
+                    cleared += entry.weight;
+                }
+                probation.clear();
+                protectedSegment.clear();
+                weight.addAndGet(-cleared);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Evict entries of this partition while the cache is over its weight limit.
+         */
+        private void trim() {
+            lock.lock();
+            try {
+                evict(null);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return probation.size() + protectedSegment.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Entry detach(Object key) {
+            Entry entry = probation.remove(key);
+            if (entry == null) {
+                entry = protectedSegment.remove(key);
+            }
+            if (entry != null) {
+                weight.addAndGet(-entry.weight);
+            }
+            return entry;
+        }
+
+        /**
+         * Evict down to the entry limit of the partition and, as far as this partition can, the
+         * weight limit of the cache; the entry just put is kept.
+         */
+        private void evict(Object kept) {
+            while (probation.size() + protectedSegment.size() > maxEntries || weight.get() > maxWeight) {
+                Iterator<Map.Entry<Object, Entry>> eldest = eldest(probation, kept);
+                if (eldest == null) {
+                    eldest = eldest(protectedSegment, kept);
+                }
+                if (eldest == null) {
+                    return;
+                }
+                Entry victim = eldest.next().getValue();
+                eldest.remove();
+                weight.addAndGet(-victim.weight);
+                stats.recordEviction();
+            }
+        }
+
+        /**
+         * Iterator positioned before the least recently used entry of the segment other than the
+         * kept one, null when there is none.
+         */
+        private Iterator<Map.Entry<Object, Entry>> eldest(LinkedHashMap<Object, Entry> segment, Object kept) {
+            if (segment.isEmpty() || (segment.size() == 1 && kept != null && segment.containsKey(kept))) {
+                return null;
+            }
+            Iterator<Map.Entry<Object, Entry>> iterator = segment.entrySet().iterator();
+            if (kept != null && segment.keySet().iterator().next().equals(kept)) {
+                iterator.next();
+            }
+            return iterator;
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long weight;
+
+        private Entry(Object value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import com.xphsc.easyjdbc.core.exception.JdbcDataException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces identical concurrent loads: while a load for a key is in flight, other callers of
+ * the same key wait for it and share its result or exception instead of running it again.
+ * <p>Waiting is bounded: a caller still waiting after the wait time runs the load itself, and an
+ * interrupted caller gives up with a {@link JdbcDataException}, its interrupt status restored.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class SingleFlight {
+
+    public static final long DEFAULT_WAIT_MILLIS = 30000;
+
+    private final ConcurrentHashMap<Object, Call> calls = new ConcurrentHashMap<Object, Call>();
+    private final long waitNanos;
+
+    public SingleFlight() {
+        this(DEFAULT_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public SingleFlight(long wait, TimeUnit unit) {
+        if (wait <= 0) {
+            throw new IllegalArgumentException("Wait must be greater than 0");
+        }
+        this.waitNanos = unit.toNanos(wait);
+    }
+
+    public <R> R execute(Object key, Supplier<R> loader) {
+        return execute(key, loader, UnaryOperator.identity());
+    }
+
+    /**
+     * @param forWaiter applied to the shared result for every caller that waited for it, so that
+     *                  each of them can be handed a copy of its own
+     */
+    public <R> R execute(Object key, Supplier<R> loader, UnaryOperator<R> forWaiter) {
+        Call call = new Call();
+        Call inFlight = calls.putIfAbsent(key, call);
+        if (inFlight != null) {
+            if (inFlight.await(waitNanos)) {
+                @SuppressWarnings("unchecked")
+                R shared = (R) inFlight.result();
+                return forWaiter.apply(shared);
+            }
+            return loader.get();
+        }
+        try {
+            R result = loader.get();
+            call.result = result;
+            return result;
+        } catch (RuntimeException e) {
+            call.error = e;
+            throw e;
+        } catch (Error e) {
+            call.error = e;
+            throw e;
+        } finally {
+            calls.remove(key, call);
+            call.latch.countDown();
+        }
+    }
+
+    public int getInFlight() {
+        return calls.size();
+    }
+
+    private static final class Call {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Object result;
+        private volatile Throwable error;
+
+        /**
+         * @return false when the load is still running after the given time
+         */
+        private boolean await(long nanos) {
+            try {
+                return latch.await(nanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JdbcDataException("Interrupted while waiting for an identical query in flight", e);
+            }
+        }
+
+        private Object result() {
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            return result;
+        }
+    }
+}
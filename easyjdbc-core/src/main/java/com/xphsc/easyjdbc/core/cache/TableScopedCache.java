@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache decorator that tags every entry with the tables it was read from.
+ * <p>Writes invalidate only the entries depending on the tables they touched, see
+ * {@link TableVersions}. Stale entries are dropped when they are next read, or aged out by
+ * the eviction policy of the delegate. Entries may also carry a time-to-live, see {@link CacheExpiry}.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class TableScopedCache implements Cache {
+
+    private final Cache delegate;
+    private final TableVersions tableVersions;
+    private final CacheStats stats;
+
+    public TableScopedCache(Cache delegate) {
+        this(delegate, TableVersions.global());
+    }
+
+    public TableScopedCache(Cache delegate, TableVersions tableVersions) {
+        this.delegate = delegate;
+        this.tableVersions = tableVersions;
+        this.stats = CacheStats.of(delegate.getId());
+    }
+
+    public static TableScopedCache of(Cache cache) {
+        return cache instanceof TableScopedCache ? (TableScopedCache) cache : new TableScopedCache(cache);
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    public TableVersions getTableVersions() {
+        return tableVersions;
+    }
+
+    public TableVersions.Snapshot snapshot(Collection<String> tables) {
+        return tableVersions.snapshot(tables);
+    }
+
+    /**
+     * Cache a value that depends on no known table, any write invalidates it.
+     */
+    @Override
+    public void putObject(Object key, Object value) {
+        putObject(key, value, tableVersions.snapshot(null));
+    }
+
+    /**
+     * Cache a value loaded after the given snapshot was taken.
+     */
+    public void putObject(Object key, Object value, TableVersions.Snapshot snapshot) {
+        putObject(key, value, snapshot, CacheExpiry.NONE);
+    }
+
+    /**
+     * Cache a value loaded after the given snapshot was taken, expiring as configured.
+     */
+    public void putObject(Object key, Object value, TableVersions.Snapshot snapshot, CacheExpiry expiry) {
+        if (!tableVersions.isCurrent(snapshot)) {
+            return;
+        }
+        delegate.putObject(key, new Entry(value, snapshot, expiry, System.nanoTime()));
+    }
+
+    @Override
+    public Object getOject(Object key) {
+        Object object = delegate.getOject(key);
+        if (!(object instanceof Entry)) {
+            return object;
+        }
+        Entry entry = current(key, (Entry) object);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * The valid entry cached for the key, null when absent, stale or expired.
+     */
+    public Entry getEntry(Object key) {
+        Object object = delegate.getOject(key);
+        return object instanceof Entry ? current(key, (Entry) object) : null;
+    }
+
+    private Entry current(Object key, Entry entry) {
+        if (!tableVersions.isCurrent(entry.snapshot) || entry.isExpired(System.nanoTime())) {
+            delegate.removeObject(key);
+            return null;
+        }
+        return entry;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Object object = delegate.removeObject(key);
+        return object instanceof Entry ? ((Entry) object).value : object;
+    }
+
+    /**
+     * Invalidate the entries read from the given tables, all entries when no table is given.
+     */
+    public void invalidate(Collection<String> tables) {
+        tableVersions.invalidate(tables);
+        stats.recordInvalidation();
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.getSize();
+    }
+
+    @Override
+    public ReentrantLock getReadWriteLock() {
+        return delegate.getReadWriteLock();
+    }
+
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Cache)) {
+            return false;
+        }
+        if (obj == this) {
+            return true;
+        }
+        Cache cache = (Cache) obj;
+        return getId().equals(cache.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getId().hashCode();
+    }
+
+    /**
+     * A cached value with the table versions and expiry it was loaded with.
+     */
+    public static final class Entry {
+        private final Object value;
+        private final TableVersions.Snapshot snapshot;
+        private final CacheExpiry expiry;
+        private final long expiresAt;
+        private final long refreshAt;
+        /** Refresh claim, shared by the copies of the entry rebuilt by serializing or promoting tiers */
+        private final AtomicBoolean refreshing;
+
+        private Entry(Object value, TableVersions.Snapshot snapshot, CacheExpiry expiry, long now) {
+            this.value = value;
+            this.snapshot = snapshot;
+            this.expiry = expiry;
+            this.expiresAt = expiry.expiresAt(now);
+            this.refreshAt = expiry.refreshAt(now);
+            this.refreshing = new AtomicBoolean();
+        }
+
+        private Entry(Object value, Entry entry) {
+            this.value = value;
+            this.snapshot = entry.snapshot;
+            this.expiry = entry.expiry;
+            this.expiresAt = entry.expiresAt;
+            this.refreshAt = entry.refreshAt;
+            this.refreshing = entry.refreshing;
+        }
+
+        /**
+         * Copy of this entry holding another value, e.g. the value decoded by a serializing tier.
+         */
+        Entry withValue(Object value) {
+            return new Entry(value, this);
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public CacheExpiry getExpiry() {
+            return expiry;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != 0 && now - expiresAt >= 0;
+        }
+
+        /**
+         * Whether the entry is due for refresh-ahead, true for only one caller until released.
+         */
+        public boolean claimRefresh() {
+            return refreshAt != 0 && System.nanoTime() - refreshAt >= 0 && refreshing.compareAndSet(false, true);
+        }
+
+        void releaseRefresh() {
+            refreshing.set(false);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import com.xphsc.easyjdbc.core.parser.DefaultSQLParser;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-table modification counters used to invalidate cached results by table.
+ * <p>A cached result records the versions of the tables it was read from; a write bumps the
+ * versions of the tables it touched, which makes every dependent entry stale at once without
+ * walking the cache. A write whose tables are unknown advances the generation, which
+ * invalidates everything. The version of a table is the sequence number of its last write, so
+ * snapshots can also be taken as of an earlier point, see {@link #snapshot(Collection, Snapshot)}. Table names are normalized by {@link DefaultSQLParser#normalizeTable(String)},
+ * so the names of entity metadata, parsed statements and invalidation events all match.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class TableVersions {
+
+    private static final TableVersions GLOBAL = new TableVersions();
+    /** Stamp of a table written after the snapshot it belongs to, no version matches it */
+    private static final long STALE = -1;
+
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<String, AtomicLong>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    public static TableVersions global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Capture the current versions of the given tables, before the query reading them is run.
+     * An empty table list yields a snapshot that any write invalidates.
+     */
+    public Snapshot snapshot(Collection<String> tables) {
+        if (tables == null || tables.isEmpty()) {
+            return new Snapshot(null, new long[]{generation.get(), writes.get()});
+        }
+        String[] names = tables.toArray(new String[tables.size()]);
+        long[] stamps = new long[names.length + 1];
+        stamps[0] = generation.get();
+        for (int i = 0; i < names.length; i++) {
+            names[i] = DefaultSQLParser.normalizeTable(names[i]);
+            stamps[i + 1] = version(names[i]).get();
+        }
+        return new Snapshot(names, stamps);
+    }
+
+    /**
+     * Capture the versions of the given tables as of an earlier snapshot of all tables, taken by
+     * {@code snapshot(null)}: tables written since that snapshot are stale in the result.
+     */
+    public Snapshot snapshot(Collection<String> tables, Snapshot since) {
+        if (since.tables != null) {
+            throw new IllegalArgumentException("Snapshot of all tables expected");
+        }
+        if (tables == null || tables.isEmpty()) {
+            return since;
+        }
+        String[] names = tables.toArray(new String[tables.size()]);
+        long[] stamps = new long[names.length + 1];
+        stamps[0] = since.stamps[0];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = DefaultSQLParser.normalizeTable(names[i]);
+            long version = version(names[i]).get();
+            stamps[i + 1] = version <= since.stamps[1] ? version : STALE;
+        }
+        return new Snapshot(names, stamps);
+    }
+
+    public boolean isCurrent(Snapshot snapshot) {
+        long[] stamps = snapshot.stamps;
+        if (stamps[0] != generation.get()) {
+            return false;
+        }
+        if (snapshot.tables == null) {
+            return stamps[1] == writes.get();
+        }
+        for (int i = 0; i < snapshot.tables.length; i++) {
+            if (stamps[i + 1] != version(snapshot.tables[i]).get()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mark the given tables as modified, an empty table list invalidates all tables.
+     */
+    public void invalidate(Collection<String> tables) {
+        if (tables == null || tables.isEmpty()) {
+            invalidateAll();
+            return;
+        }
+        long write = writes.incrementAndGet();
+        for (String table : tables) {
+            version(DefaultSQLParser.normalizeTable(table)).accumulateAndGet(write, Math::max);
+        }
+    }
+
+    public void invalidateAll() {
+        writes.incrementAndGet();
+        generation.incrementAndGet();
+    }
+
+    private AtomicLong version(String table) {
+        AtomicLong version = versions.get(table);
+        if (version == null) {
+            AtomicLong created = new AtomicLong();
+            version = versions.putIfAbsent(table, created);
+            if (version == null) {
+                version = created;
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Table versions observed when a result was loaded.
+     */
+    public static final class Snapshot {
+        private final String[] tables;
+        private final long[] stamps;
+
+        private Snapshot(String[] tables, long[] stamps) {
+            this.tables = tables;
+            this.stamps = stamps;
+        }
+
+        public String[] getTables() {
+            return tables;
+        }
+    }
+}
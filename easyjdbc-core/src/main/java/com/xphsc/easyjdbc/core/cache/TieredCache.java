@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xphsc.easyjdbc.core.cache;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Two level cache: a small on-heap L1, e.g. {@link SegmentedLruCache}, in front of a larger L2,
+ * e.g. {@link OffHeapCache}. Values are written to both levels; an L1 miss served by the L2 is
+ * promoted back into the L1.
+ * <pre>
+ * easyJdbcTemplate.localCache(new TieredCache(new SegmentedLruCache("Localcache", 256),
+ *         new OffHeapCache("Localcache-offheap", 1024L * 1024 * 1024)));
+ * </pre>
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class TieredCache implements Cache {
+
+    private final Cache l1;
+    private final Cache l2;
+
+    public TieredCache(Cache l1, Cache l2) {
+        this.l1 = l1;
+        this.l2 = l2;
+    }
+
+    @Override
+    public String getId() {
+        return l1.getId();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        l1.putObject(key, value);
+        l2.putObject(key, value);
+    }
+
+    @Override
+    public Object getOject(Object key) {
+        Object value = l1.getOject(key);
+        if (value != null) {
+            return value;
+        }
+        value = l2.getOject(key);
+        if (value != null) {
+            l1.putObject(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        Object value = l1.removeObject(key);
+        l2.removeObject(key);
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        l1.clear();
+        l2.clear();
+    }
+
+    /**
+     * Number of values held by the L2, which holds every value of the L1 unless it rejected them.
+     */
+    @Override
+    public int getSize() {
+        return Math.max(l1.getSize(), l2.getSize());
+    }
+
+    @Override
+    public ReentrantLock getReadWriteLock() {
+        return l1.getReadWriteLock();
+    }
+
+    public Cache getL1() {
+        return l1;
+    }
+
+    public Cache getL2() {
+        return l2;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Cache)) {
+            return false;
+        }
+        if (obj == this) {
+            return true;
+        }
+        return getId().equals(((Cache) obj).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getId().hashCode();
+    }
+}
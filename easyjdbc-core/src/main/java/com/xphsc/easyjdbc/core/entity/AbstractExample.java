@@ -25,6 +25,8 @@ import com.xphsc.easyjdbc.executor.example.CountByExampleExecutor;
 import com.xphsc.easyjdbc.executor.example.DeleteByExampleExecutor;
 import com.xphsc.easyjdbc.executor.example.FindByExampleExecutor;
 import com.xphsc.easyjdbc.core.support.JdbcBuilder;
+import com.xphsc.easyjdbc.core.support.ResultSetIterator;
+import com.xphsc.easyjdbc.core.support.RowHandler;
 import com.xphsc.easyjdbc.page.PageInfo;
 import com.xphsc.easyjdbc.page.PageInfoImpl;
 import com.xphsc.easyjdbc.util.Assert;
@@ -32,6 +34,7 @@ import com.xphsc.easyjdbc.util.Collects;
 import com.xphsc.easyjdbc.util.StringUtil;
 import javax.persistence.Entity;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Created by ${huipei.x}
@@ -47,6 +50,8 @@ public abstract class AbstractExample<T> {
     protected PageInfo pageInfo;
 	private Integer offset;
     private Integer limit;
+    private int fetchSize;
+    private boolean reuseInstance;
     protected LinkedList<String> excludePropertys;
     protected EntityElement entityElement;
     protected  Map<String,String> mappings;
@@ -102,6 +107,24 @@ public abstract class AbstractExample<T> {
         return (T) this;
     }
 
+    /**
+     * Rows fetched per round trip by {@link #iterate()} and {@link #stream()}
+     */
+    @SuppressWarnings("unchecked")
+    public T fetchSize(int fetchSize){
+        this.fetchSize=fetchSize;
+        return (T) this;
+    }
+
+    /**
+     * Whether {@link #forEach(RowHandler)} fills one entity instance for all rows instead of one per row
+     */
+    @SuppressWarnings("unchecked")
+    public T reuseInstance(boolean reuseInstance){
+        this.reuseInstance=reuseInstance;
+        return (T) this;
+    }
+
     protected T excludePropertys(String... excludePropertys){
         LinkedList<String> columns=new LinkedList();
         for(String property:excludePropertys){
@@ -507,6 +530,29 @@ public abstract class AbstractExample<T> {
         return null;
     }
 
+    protected <T> ResultSetIterator<T> iterate() {
+        return this.<T>streamingExecutor().iterate(fetchSize);
+    }
+
+    protected <T> Stream<T> stream() {
+        return this.<T>iterate().stream();
+    }
+
+    protected <T> long forEach(RowHandler<? super T> handler) {
+        Assert.notNull(handler,"Row handler cannot be null");
+        return this.<T>streamingExecutor().forEach(handler, fetchSize, reuseInstance);
+    }
+
+    private <T> FindByExampleExecutor<List<T>> streamingExecutor() {
+        if(Collects.isEmpty(parameters)){
+            parameters=new LinkedList<>();
+        }
+        Assert.notNull(jdbcBuilder,"Example is not bound to an EasyJdbcTemplate");
+        return new FindByExampleExecutor<List<T>>(
+                applyWhere(), persistentClass,entityClass,pageInfo
+                ,entityElement,excludePropertys,mappings,distinct,selectPropertys,parameters.toArray(),this::getJdbcBuilder,dialectName);
+    }
+
     protected <T> T  get() {
         List<T> results=list();
         return Collects.isNotEmpty(results)?results.get(0): null;
@@ -514,6 +560,13 @@ public abstract class AbstractExample<T> {
     }
 
     protected long  count()  {
+        return count(false);
+    }
+
+    /**
+     * @param pageTotal whether the count is the total of a page, which may be served from the page total cache
+     */
+    private long count(boolean pageTotal)  {
         CountByExampleExecutor executor;
         if (Collects.isNotEmpty(selectPropertys)) {
             Assert.isTrue(!this.selectPropertys.toString().contains("("),
@@ -527,9 +580,9 @@ public abstract class AbstractExample<T> {
                 "".equals(sqlBuilder.toString())
                ) {
                 bulidSelect();
-                executor = new CountByExampleExecutor(applyWhere(), this::getJdbcBuilder, parameters.toArray());
+                executor = new CountByExampleExecutor(applyWhere(), this::getJdbcBuilder, parameters.toArray(), pageTotal);
             } else {
-                executor = new CountByExampleExecutor(sqlBuilder, this::getJdbcBuilder, parameters.toArray());
+                executor = new CountByExampleExecutor(sqlBuilder, this::getJdbcBuilder, parameters.toArray(), pageTotal);
             }
             long count = executor.execute();
             executor = null;
@@ -546,7 +599,7 @@ public abstract class AbstractExample<T> {
                 pageInfo=new PageInfo();
           }
          results=list();
-         total=count();
+         total=count(true);
             return new PageInfoImpl<T>(results,total,pageInfo.getPageNum(),pageInfo.getPageSize());
      }else{
            if(Collects.isEmpty(parameters)){
@@ -558,7 +611,7 @@ public abstract class AbstractExample<T> {
                         ,entityElement,excludePropertys,mappings,distinct,selectPropertys,parameters.toArray(),this::getJdbcBuilder,dialectName);
                 results= executor.execute();
             }
-           total=count();
+           total=count(true);
            if(pageInfo==null){
                pageInfo=new PageInfo();
            }
@@ -23,8 +23,11 @@ package com.xphsc.easyjdbc.core.entity;
 
 import com.xphsc.easyjdbc.core.lambda.LambdaFunction;
 import com.xphsc.easyjdbc.core.lambda.Reflections;
+import com.xphsc.easyjdbc.core.support.ResultSetIterator;
+import com.xphsc.easyjdbc.core.support.RowHandler;
 import com.xphsc.easyjdbc.page.PageInfo;
 import java.util.*;
+import java.util.stream.Stream;
 
 
 /**
@@ -175,6 +178,22 @@ public class Example extends AbstractExample<Example>{
         return super.offsetPage(offset, limit);
     }
 
+    /**
+     *  rows fetched per round trip by iterate and stream
+     */
+    @Override
+    public Example fetchSize(int fetchSize) {
+        return super.fetchSize(fetchSize);
+    }
+
+    /**
+     *  one entity instance filled for all rows passed to forEach
+     */
+    @Override
+    public Example reuseInstance(boolean reuseInstance) {
+        return super.reuseInstance(reuseInstance);
+    }
+
     public void or(Criteria criteria) {
        criteria.setAndOr("OR");
         oredCriteria.add(criteria);
@@ -580,6 +599,30 @@ public class Example extends AbstractExample<Example>{
         return super.list();
     }
 
+    /**
+     * Iterate the matching rows as they are fetched, the iterator must be closed when not exhausted
+     */
+    @Override
+    public <T> ResultSetIterator<T> iterate() {
+        return super.iterate();
+    }
+
+    /**
+     * Stream the matching rows as they are fetched, the stream must be closed
+     */
+    @Override
+    public <T> Stream<T> stream() {
+        return super.stream();
+    }
+
+    /**
+     * Push the matching rows to the handler one at a time, returns the number of rows
+     */
+    @Override
+    public <T> long forEach(RowHandler<? super T> handler) {
+        return super.forEach(handler);
+    }
+
     @Override
     public <T> T get() {
         return super.get();
@@ -15,7 +15,11 @@
  */
 package com.xphsc.easyjdbc.core.metadata;
 
+import com.xphsc.easyjdbc.core.metadata.resultset.ColumnReader;
+import com.xphsc.easyjdbc.core.metadata.resultset.DefaultResultSet;
 import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 
 /**
@@ -57,6 +61,15 @@ public class DynamicFieldElement implements Element {
 	 * 是否二进制blob类型
 	 */
 	private boolean blob;
+	/**
+	 * 按字段类型解析的列读取器
+	 */
+	private transient ColumnReader columnReader;
+	/**
+	 * 由get/set方法生成的读写函数
+	 */
+	private transient Function<Object, Object> getter;
+	private transient BiConsumer<Object, Object> setter;
 	
 	public boolean isMap() {
 		return map;
@@ -81,18 +94,69 @@ public class DynamicFieldElement implements Element {
 	}
 	public void setType(Class<?> type) {
 		this.type = type;
+		this.columnReader = type != null ? DefaultResultSet.reader(type) : null;
+	}
+	public ColumnReader getColumnReader() {
+		if (columnReader == null && type != null) {
+			columnReader = DefaultResultSet.reader(type);
+		}
+		return columnReader;
 	}
 	public Method getReadMethod() {
 		return readMethod;
 	}
 	public void setReadMethod(Method readMethod) {
 		this.readMethod = readMethod;
+		this.getter = null;
 	}
 	public Method getWriteMethod() {
 		return writeMethod;
 	}
 	public void setWriteMethod(Method writeMethod) {
 		this.writeMethod = writeMethod;
+		this.setter = null;
+	}
+	public Function<Object, Object> getGetter() {
+		if (getter == null && readMethod != null) {
+			getter = PropertyAccessors.getter(readMethod);
+		}
+		return getter;
+	}
+	public void setGetter(Function<Object, Object> getter) {
+		this.getter = getter;
+	}
+	public BiConsumer<Object, Object> getSetter() {
+		if (setter == null && writeMethod != null) {
+			setter = PropertyAccessors.setter(writeMethod);
+		}
+		return setter;
+	}
+	public void setSetter(BiConsumer<Object, Object> setter) {
+		this.setter = setter;
+	}
+	/**
+	 * 读取实体的字段值，失败时才拼接错误信息
+	 */
+	public Object getValue(Object entity) {
+		try {
+			return getGetter().apply(entity);
+		} catch (Exception e) {
+			throw new RuntimeException(describe(entity) + " Failure to obtain value", e);
+		}
+	}
+	/**
+	 * 设置实体的字段值，失败时才拼接错误信息
+	 */
+	public void setValue(Object entity, Object value) {
+		try {
+			getSetter().accept(entity, value);
+		} catch (Exception e) {
+			throw new RuntimeException(describe(entity) + " Setting value failed", e);
+		}
+	}
+	private String describe(Object entity) {
+		return "entity：" + (entity != null ? entity.getClass().getName() : null)
+				+ " field：" + name;
 	}
 	public boolean isClob() {
 		return clob;
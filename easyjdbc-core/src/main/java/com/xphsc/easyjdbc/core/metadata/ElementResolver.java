@@ -17,6 +17,7 @@ package com.xphsc.easyjdbc.core.metadata;
 
 
 import com.xphsc.easyjdbc.annotation.CreatedDate;
+import com.xphsc.easyjdbc.annotation.FieldAccess;
 import com.xphsc.easyjdbc.annotation.ModifiedDate;
 import com.xphsc.easyjdbc.core.metadata.resolver.*;
 import com.xphsc.easyjdbc.util.Assert;
@@ -42,6 +43,12 @@ public class ElementResolver {
 	public static final Map<String, EntityElement> ENTITIES = new ConcurrentHashMap<String, EntityElement>();
 	public static final Map<String, DynamicEntityElement> DYNAMIC_ENTITIES = new ConcurrentHashMap<String, DynamicEntityElement>();
 	private static final Map<Class<?>, Resolver> RESOLVERS = new ConcurrentHashMap<Class<?>,Resolver>();
+	private static final Map<Class<?>, Object> PROVIDERS = new ConcurrentHashMap<Class<?>, Object>();
+	private static final Object NO_PROVIDER = new Object();
+	/**
+	 * 全局直接读写字段，不经过get/set方法
+	 */
+	private static volatile boolean fieldAccess = false;
 
 	static{
 		RESOLVERS.put(javax.persistence.Table.class, new TableResolver());
@@ -55,6 +62,25 @@ public class ElementResolver {
 		RESOLVERS.put(ModifiedDate.class, new ModifieDateResolver());
 	}
 
+	/**
+	 * 设置全局字段访问模式，作用于整个JVM内的所有模板；切换时清空已解析的实体，使其按新模式重新解析。
+	 * 单个实体使用{@link FieldAccess}注解
+	 */
+	public static synchronized void setFieldAccess(boolean fieldAccess) {
+		if (ElementResolver.fieldAccess != fieldAccess) {
+			ElementResolver.fieldAccess = fieldAccess;
+			ENTITIES.clear();
+			DYNAMIC_ENTITIES.clear();
+		}
+	}
+
+	/**
+	 * 实体是否直接读写字段
+	 */
+	public static boolean isFieldAccess(Class<?> entityClass) {
+		return fieldAccess || null != entityClass.getAnnotation(FieldAccess.class);
+	}
+
 	/**
 	 * 解析实体
 	 */
@@ -63,6 +89,12 @@ public class ElementResolver {
 		if (ENTITIES.containsKey(persistentClassName)){
 			return ENTITIES.get(persistentClassName);
 		}
+		EntityMetadataProvider provider = getMetadataProvider(persistentClass);
+		if (null != provider) {
+			EntityElement entityElement = provider.entityElement();
+			ENTITIES.put(persistentClassName, entityElement);
+			return entityElement;
+		}
 		EntityElement entityElement = new EntityElement();
 		entityElement.setPersistentClass(persistentClass);
 		entityElement.setName(persistentClassName);
@@ -74,8 +106,10 @@ public class ElementResolver {
 		}
 		Set<Class<?>> mappedSuperclass  = getMappedSuperclass(persistentClass);
 		Set<Field> fields =  Jdbcs.getFields(persistentClass, mappedSuperclass);
+		boolean fieldAccessed = isFieldAccess(persistentClass);
+		boolean constructed = null != EntityCreator.of(persistentClass);
 		for(Field field:fields){
-			if(Modifier.isFinal(field.getModifiers())) {
+			if(isSkipped(field, constructed)) {
 				continue;
 			}
 			String fieldName = field.getName();
@@ -86,8 +120,15 @@ public class ElementResolver {
 			fieldElement.setField(field);
 			fieldElement.setType(field.getType());
 			fieldElement.setName(fieldName);
-			fieldElement.setReadMethod(readMethod);
-			fieldElement.setWriteMethod(writeMethod);
+			if (fieldAccessed) {
+				fieldElement.setGetter(PropertyAccessors.fieldGetter(field));
+				fieldElement.setSetter(isWritable(field) ? PropertyAccessors.fieldSetter(field) : null);
+			} else {
+				fieldElement.setReadMethod(readMethod);
+				fieldElement.setWriteMethod(writeMethod);
+				fieldElement.setGetter(null == readMethod && constructed ? PropertyAccessors.fieldGetter(field) : PropertyAccessors.getter(readMethod));
+				fieldElement.setSetter(PropertyAccessors.setter(writeMethod));
+			}
 			Annotation[] annotations = field.getAnnotations();
 			if ((null == annotations || annotations.length == 0)&&null!=readMethod) {
 				annotations = readMethod.getAnnotations();
@@ -98,7 +139,7 @@ public class ElementResolver {
 					resolver.resolve(fieldElement, annotation);
 				}
 			}
-			if(!fieldElement.isTransientField()){
+			if(!fieldAccessed&&!constructed&&!fieldElement.isTransientField()){
 				Assert.notNull(readMethod, "实体:" + persistentClassName + ", 字段：" + fieldName + " 没有get方法");
 				Assert.notNull(writeMethod,"实体:" + persistentClassName + ", 字段：" + fieldName + " 没有set方法");
 			}
@@ -115,6 +156,48 @@ public class ElementResolver {
 		return entityElement;
 	}
 
+	/**
+	 * 获取编译期生成的实体元数据，没有生成时返回null
+	 */
+	public static EntityMetadataProvider getMetadataProvider(Class<?> persistentClass) {
+		Object provider = PROVIDERS.get(persistentClass);
+		if (null == provider) {
+			provider = loadMetadataProvider(persistentClass);
+			PROVIDERS.put(persistentClass, provider);
+		}
+		return provider != NO_PROVIDER ? (EntityMetadataProvider) provider : null;
+	}
+
+	private static Object loadMetadataProvider(Class<?> persistentClass) {
+		String name = persistentClass.getName();
+		int packageEnd = name.lastIndexOf('.');
+		String providerName = name.substring(0, packageEnd + 1)
+				+ name.substring(packageEnd + 1).replace('$', '_') + EntityMetadataProvider.SUFFIX;
+		try {
+			Class<?> providerClass = Class.forName(providerName, true, persistentClass.getClassLoader());
+			if (EntityMetadataProvider.class.isAssignableFrom(providerClass)) {
+				return providerClass.newInstance();
+			}
+		} catch (ClassNotFoundException e) {
+			//not generated, the entity is resolved by reflection
+		} catch (ReflectiveOperationException | LinkageError e) {
+			//not usable, the entity is resolved by reflection
+		}
+		return NO_PROVIDER;
+	}
+
+	/**
+	 * final字段不映射，由构造方法创建的实体除外
+	 */
+	private static boolean isSkipped(Field field, boolean constructed) {
+		int modifiers = field.getModifiers();
+		return Modifier.isFinal(modifiers) && (!constructed || Modifier.isStatic(modifiers));
+	}
+
+	private static boolean isWritable(Field field) {
+		return !Modifier.isFinal(field.getModifiers());
+	}
+
 	/**
 	 * 获取给定类的所有注解MappedSuperclass的父类
 	 */
@@ -148,20 +231,29 @@ public class ElementResolver {
 		dynamicEntityElement.setName(dynamicEntityClassName);
 		Set<Class<?>> superclass = new HashSet();
 		Set<Field> fields = Jdbcs.getFields(dynamicEntityClass, superclass);
+		boolean fieldAccessed = isFieldAccess(dynamicEntityClass);
+		boolean constructed = null != EntityCreator.of(dynamicEntityClass);
 		for(Field field:fields){
-			if(Modifier.isFinal(field.getModifiers())) {
+			if(isSkipped(field, constructed)) {
 				continue;
 			}
 			String fieldName = field.getName();
-			Method readMethod = Jdbcs.getReadMethod(dynamicEntityClass, superclass, fieldName);
-			Method writeMethod = Jdbcs.getWriteMethod(dynamicEntityClass, superclass, fieldName, field.getType());
-			Assert.notNull(readMethod,"实体:" + dynamicEntityClassName + ", 字段：" + fieldName + " 没有get方法");
-			Assert.notNull(writeMethod,"实体:" + dynamicEntityClassName + ", 字段：" + fieldName + " 没有set方法");
 			DynamicFieldElement dynamicFieldElement = new DynamicFieldElement();
 			dynamicFieldElement.setName(fieldName);
 			dynamicFieldElement.setType(field.getType());
-			dynamicFieldElement.setReadMethod(readMethod);
-			dynamicFieldElement.setWriteMethod(writeMethod);
+			if (fieldAccessed || constructed) {
+				dynamicFieldElement.setGetter(PropertyAccessors.fieldGetter(field));
+				dynamicFieldElement.setSetter(isWritable(field) ? PropertyAccessors.fieldSetter(field) : null);
+			} else {
+				Method readMethod = Jdbcs.getReadMethod(dynamicEntityClass, superclass, fieldName);
+				Method writeMethod = Jdbcs.getWriteMethod(dynamicEntityClass, superclass, fieldName, field.getType());
+				Assert.notNull(readMethod,"实体:" + dynamicEntityClassName + ", 字段：" + fieldName + " 没有get方法");
+				Assert.notNull(writeMethod,"实体:" + dynamicEntityClassName + ", 字段：" + fieldName + " 没有set方法");
+				dynamicFieldElement.setReadMethod(readMethod);
+				dynamicFieldElement.setWriteMethod(writeMethod);
+				dynamicFieldElement.setGetter(PropertyAccessors.getter(readMethod));
+				dynamicFieldElement.setSetter(PropertyAccessors.setter(writeMethod));
+			}
 			String columnName =  Jdbcs.camelToUnderline(fieldName);
 			if(dynamicMappinged&&StringUtil.isNotEmpty(dynamicMappings.get(fieldName))) {
 				columnName = dynamicMappings.get(fieldName);
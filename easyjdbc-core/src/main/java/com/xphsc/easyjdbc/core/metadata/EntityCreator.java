@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.metadata;
+
+
+import java.beans.ConstructorProperties;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * The canonical constructor of an immutable entity, which is then built in one call from the
+ * values of all its properties instead of being instantiated bare and filled through setters.
+ * The constructor is the one annotated with {@link ConstructorProperties}, or the canonical
+ * constructor of a record on JVMs that have records
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class EntityCreator {
+
+	private static final Map<Class<?>, Object> CREATORS = new ConcurrentHashMap<Class<?>, Object>();
+	private static final Object NO_CREATOR = new Object();
+	private static final Method IS_RECORD;
+	private static final Method RECORD_COMPONENTS;
+	private static final Method COMPONENT_NAME;
+	private static final Method COMPONENT_TYPE;
+
+	static {
+		Method isRecord = null;
+		Method recordComponents = null;
+		Method componentName = null;
+		Method componentType = null;
+		try {
+			isRecord = Class.class.getMethod("isRecord");
+			recordComponents = Class.class.getMethod("getRecordComponents");
+			Class<?> recordComponent = recordComponents.getReturnType().getComponentType();
+			componentName = recordComponent.getMethod("getName");
+			componentType = recordComponent.getMethod("getType");
+		} catch (NoSuchMethodException e) {
+			//no records before Java 16
+		}
+		IS_RECORD = isRecord;
+		RECORD_COMPONENTS = recordComponents;
+		COMPONENT_NAME = componentName;
+		COMPONENT_TYPE = componentType;
+	}
+
+	/**
+	 * 实体类
+	 */
+	private final Class<?> type;
+	/**
+	 * 构造方法，参数展开为Object[]
+	 */
+	private final MethodHandle constructor;
+	/**
+	 * 参数对应的字段名
+	 */
+	private final String[] parameterNames;
+	/**
+	 * 参数类型
+	 */
+	private final Class<?>[] parameterTypes;
+	/**
+	 * 基本类型参数在列为null时的默认值
+	 */
+	private final Object[] defaults;
+
+	private EntityCreator(Constructor<?> constructor, String[] parameterNames) throws IllegalAccessException {
+		constructor.setAccessible(true);
+		this.type = constructor.getDeclaringClass();
+		this.parameterNames = parameterNames;
+		this.parameterTypes = constructor.getParameterTypes();
+		this.constructor = MethodHandles.lookup().unreflectConstructor(constructor)
+				.asType(MethodType.genericMethodType(parameterTypes.length))
+				.asSpreader(Object[].class, parameterTypes.length);
+		this.defaults = new Object[parameterTypes.length];
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (parameterTypes[i].isPrimitive()) {
+				defaults[i] = Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+			}
+		}
+	}
+
+	/**
+	 * 获取类的构造方法映射，没有时返回null
+	 */
+	public static EntityCreator of(Class<?> type) {
+		Object creator = CREATORS.get(type);
+		if (null == creator) {
+			creator = resolve(type);
+			CREATORS.put(type, creator);
+		}
+		return creator != NO_CREATOR ? (EntityCreator) creator : null;
+	}
+
+	private static Object resolve(Class<?> type) {
+		try {
+			if (isRecord(type)) {
+				Object[] components = (Object[]) RECORD_COMPONENTS.invoke(type);
+				String[] names = new String[components.length];
+				Class<?>[] types = new Class<?>[components.length];
+				for (int i = 0; i < components.length; i++) {
+					names[i] = (String) COMPONENT_NAME.invoke(components[i]);
+					types[i] = (Class<?>) COMPONENT_TYPE.invoke(components[i]);
+				}
+				return new EntityCreator(type.getDeclaredConstructor(types), names);
+			}
+			Constructor<?> annotated = null;
+			for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+				ConstructorProperties properties = constructor.getAnnotation(ConstructorProperties.class);
+				if (null != properties && properties.value().length == constructor.getParameterTypes().length
+						&& (null == annotated || constructor.getParameterTypes().length > annotated.getParameterTypes().length)) {
+					annotated = constructor;
+				}
+			}
+			if (null != annotated) {
+				return new EntityCreator(annotated, annotated.getAnnotation(ConstructorProperties.class).value());
+			}
+		} catch (ReflectiveOperationException | LinkageError e) {
+			throw new IllegalStateException("Failure to resolve constructor of " + type.getName(), e);
+		}
+		return NO_CREATOR;
+	}
+
+	private static boolean isRecord(Class<?> type) throws ReflectiveOperationException {
+		return null != IS_RECORD && (Boolean) IS_RECORD.invoke(type);
+	}
+
+	public int size() {
+		return parameterNames.length;
+	}
+
+	public String getParameterName(int i) {
+		return parameterNames[i];
+	}
+
+	public Class<?> getParameterType(int i) {
+		return parameterTypes[i];
+	}
+
+	/**
+	 * 调用构造方法创建实体，基本类型参数为null时取默认值
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T newInstance(Object[] arguments) {
+		for (int i = 0; i < arguments.length; i++) {
+			if (null == arguments[i]) {
+				arguments[i] = defaults[i];
+			}
+		}
+		try {
+			return (T) constructor.invokeExact(arguments);
+		} catch (Throwable e) {
+			throw new IllegalStateException("Failure to construct " + type.getName(), e);
+		}
+	}
+}
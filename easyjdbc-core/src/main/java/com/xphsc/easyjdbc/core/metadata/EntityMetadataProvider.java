@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.metadata;
+
+
+import org.springframework.jdbc.core.RowMapper;
+
+
+/**
+ * Metadata of an entity generated at build time by the easyjdbc-processor annotation processor.
+ * {@link ElementResolver} picks it up instead of resolving the entity by reflection, it is found
+ * by name: the entity class name, nested names joined by '_', with the {@link #SUFFIX} suffix,
+ * in the package of the entity
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public interface EntityMetadataProvider {
+
+	String SUFFIX = "_EasyJdbc";
+
+	/**
+	 * The entity element, as {@link ElementResolver#resolve(Class)} would resolve it, with its
+	 * getters and setters bound without reflection
+	 */
+	EntityElement entityElement();
+
+	/**
+	 * A row mapper of the entity calling the typed getters of the result set and the setters directly
+	 */
+	<T> RowMapper<T> rowMapper();
+}
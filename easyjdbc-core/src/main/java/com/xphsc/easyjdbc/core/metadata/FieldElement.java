@@ -16,9 +16,15 @@
 package com.xphsc.easyjdbc.core.metadata;
 
 
+import com.xphsc.easyjdbc.core.metadata.resultset.ColumnReader;
+import com.xphsc.easyjdbc.core.metadata.resultset.DefaultResultSet;
+import com.xphsc.easyjdbc.core.transform.setter.ParameterBinder;
+import com.xphsc.easyjdbc.core.transform.setter.ParameterBinders;
 import javax.persistence.GenerationType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  *  实体字段
@@ -60,6 +66,23 @@ public class FieldElement implements Element {
 	private boolean ModifieDateField;
 	private EntityElement entityElement;
 	private Field field;
+	/**
+	 * 按字段类型解析的列读取器
+	 */
+	private transient ColumnReader columnReader;
+	/**
+	 * 按字段类型解析的参数绑定器
+	 */
+	private transient ParameterBinder parameterBinder;
+	/**
+	 * 由get/set方法生成的读写函数
+	 */
+	private transient Function<Object, Object> getter;
+	private transient BiConsumer<Object, Object> setter;
+	/**
+	 * 编译映射时为字段生成的列赋值工厂，随字段元素一起回收
+	 */
+	private transient Object assignerFactory;
 
 
 	public String getName() {
@@ -79,18 +102,85 @@ public class FieldElement implements Element {
 	}
 	public void setType(Class<?> type) {
 		this.type = type;
+		this.columnReader = type != null ? DefaultResultSet.reader(type) : null;
+		this.parameterBinder = null;
+		this.assignerFactory = null;
+	}
+	public ColumnReader getColumnReader() {
+		if (columnReader == null && type != null) {
+			columnReader = DefaultResultSet.reader(type);
+		}
+		return columnReader;
+	}
+	public ParameterBinder getParameterBinder() {
+		if (parameterBinder == null && type != null) {
+			parameterBinder = ParameterBinders.binder(type);
+		}
+		return parameterBinder;
 	}
 	public Method getReadMethod() {
 		return readMethod;
 	}
 	public void setReadMethod(Method readMethod) {
 		this.readMethod = readMethod;
+		this.getter = null;
 	}
 	public Method getWriteMethod() {
 		return writeMethod;
 	}
 	public void setWriteMethod(Method writeMethod) {
 		this.writeMethod = writeMethod;
+		this.setter = null;
+		this.assignerFactory = null;
+	}
+	public Function<Object, Object> getGetter() {
+		if (getter == null && readMethod != null) {
+			getter = PropertyAccessors.getter(readMethod);
+		}
+		return getter;
+	}
+	public void setGetter(Function<Object, Object> getter) {
+		this.getter = getter;
+	}
+	public BiConsumer<Object, Object> getSetter() {
+		if (setter == null && writeMethod != null) {
+			setter = PropertyAccessors.setter(writeMethod);
+		}
+		return setter;
+	}
+	public void setSetter(BiConsumer<Object, Object> setter) {
+		this.setter = setter;
+		this.assignerFactory = null;
+	}
+	public Object getAssignerFactory() {
+		return assignerFactory;
+	}
+	public void setAssignerFactory(Object assignerFactory) {
+		this.assignerFactory = assignerFactory;
+	}
+	/**
+	 * 读取实体的字段值，失败时才拼接错误信息
+	 */
+	public Object getValue(Object entity) {
+		try {
+			return getGetter().apply(entity);
+		} catch (Exception e) {
+			throw new RuntimeException(describe(entity) + " Failure to obtain value", e);
+		}
+	}
+	/**
+	 * 设置实体的字段值，失败时才拼接错误信息
+	 */
+	public void setValue(Object entity, Object value) {
+		try {
+			getSetter().accept(entity, value);
+		} catch (Exception e) {
+			throw new RuntimeException(describe(entity) + " Setting value failed", e);
+		}
+	}
+	private String describe(Object entity) {
+		return "entity：" + (entity != null ? entity.getClass().getName() : null)
+				+ (primaryKey ? " Primary key：" : version ? " version：" : " field：") + name;
 	}
 	public boolean isPrimaryKey() {
 		return primaryKey;
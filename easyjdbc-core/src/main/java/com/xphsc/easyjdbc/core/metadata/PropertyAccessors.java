@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2018 huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.metadata;
+
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+
+
+/**
+ * Getter and setter functions of entity properties, spun through {@link LambdaMetafactory}
+ * so that reading and writing a property costs a plain interface call. Accessors the
+ * metafactory cannot link, non-public ones or ones of classes this loader cannot see,
+ * fall back to a {@link MethodHandle}. Entities in field access mode read and write their
+ * fields through field handles instead
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class PropertyAccessors {
+
+	private static final MethodType GETTER_FACTORY = MethodType.methodType(Function.class);
+	private static final MethodType GETTER_SAM = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_FACTORY = MethodType.methodType(BiConsumer.class);
+	private static final MethodType SETTER_SAM = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private PropertyAccessors() {
+	}
+
+	@SuppressWarnings("unchecked")
+	public static Function<Object, Object> getter(Method readMethod) {
+		if (null == readMethod) {
+			return null;
+		}
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle handle = lookup.unreflect(readMethod);
+			if (isLinkable(readMethod)) {
+				MethodType instantiated = MethodType.methodType(wrap(readMethod.getReturnType()), readMethod.getDeclaringClass());
+				CallSite site = LambdaMetafactory.metafactory(lookup, "apply", GETTER_FACTORY, GETTER_SAM, handle, instantiated);
+				return (Function<Object, Object>) site.getTarget().invokeExact();
+			}
+			MethodHandle generic = handle.asType(GETTER_SAM);
+			return entity -> {
+				try {
+					return generic.invokeExact(entity);
+				} catch (Throwable e) {
+					throw PropertyAccessors.<RuntimeException>rethrow(e);
+				}
+			};
+		} catch (Throwable e) {
+			throw new IllegalStateException("Failure to resolve getter: " + readMethod, e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public static BiConsumer<Object, Object> setter(Method writeMethod) {
+		if (null == writeMethod) {
+			return null;
+		}
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle handle = lookup.unreflect(writeMethod);
+			if (isLinkable(writeMethod)) {
+				MethodType instantiated = MethodType.methodType(void.class, writeMethod.getDeclaringClass(), wrap(writeMethod.getParameterTypes()[0]));
+				CallSite site = LambdaMetafactory.metafactory(lookup, "accept", SETTER_FACTORY, SETTER_SAM, handle, instantiated);
+				return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+			}
+			MethodHandle generic = handle.asType(SETTER_SAM);
+			return (entity, value) -> {
+				try {
+					generic.invokeExact(entity, value);
+				} catch (Throwable e) {
+					throw PropertyAccessors.<RuntimeException>rethrow(e);
+				}
+			};
+		} catch (Throwable e) {
+			throw new IllegalStateException("Failure to resolve setter: " + writeMethod, e);
+		}
+	}
+
+	/**
+	 * Reads the field directly, bypassing its getter
+	 */
+	public static Function<Object, Object> fieldGetter(Field field) {
+		if (null == field) {
+			return null;
+		}
+		try {
+			field.setAccessible(true);
+			MethodHandle generic = MethodHandles.lookup().unreflectGetter(field).asType(GETTER_SAM);
+			return entity -> {
+				try {
+					return generic.invokeExact(entity);
+				} catch (Throwable e) {
+					throw PropertyAccessors.<RuntimeException>rethrow(e);
+				}
+			};
+		} catch (Throwable e) {
+			throw new IllegalStateException("Failure to resolve field getter: " + field, e);
+		}
+	}
+
+	/**
+	 * Writes the field directly, bypassing its setter
+	 */
+	public static BiConsumer<Object, Object> fieldSetter(Field field) {
+		if (null == field) {
+			return null;
+		}
+		try {
+			field.setAccessible(true);
+			MethodHandle generic = MethodHandles.lookup().unreflectSetter(field).asType(SETTER_SAM);
+			return (entity, value) -> {
+				try {
+					generic.invokeExact(entity, value);
+				} catch (Throwable e) {
+					throw PropertyAccessors.<RuntimeException>rethrow(e);
+				}
+			};
+		} catch (Throwable e) {
+			throw new IllegalStateException("Failure to resolve field setter: " + field, e);
+		}
+	}
+
+	/**
+	 * Setter of an int property taking the value unboxed, null when the setter is not linkable
+	 */
+	@SuppressWarnings("unchecked")
+	public static ObjIntConsumer<Object> intSetter(Method writeMethod) {
+		return (ObjIntConsumer<Object>) primitiveSetter(writeMethod, int.class, ObjIntConsumer.class);
+	}
+
+	/**
+	 * Setter of a long property taking the value unboxed, null when the setter is not linkable
+	 */
+	@SuppressWarnings("unchecked")
+	public static ObjLongConsumer<Object> longSetter(Method writeMethod) {
+		return (ObjLongConsumer<Object>) primitiveSetter(writeMethod, long.class, ObjLongConsumer.class);
+	}
+
+	/**
+	 * Setter of a double property taking the value unboxed, null when the setter is not linkable
+	 */
+	@SuppressWarnings("unchecked")
+	public static ObjDoubleConsumer<Object> doubleSetter(Method writeMethod) {
+		return (ObjDoubleConsumer<Object>) primitiveSetter(writeMethod, double.class, ObjDoubleConsumer.class);
+	}
+
+	private static Object primitiveSetter(Method writeMethod, Class<?> primitive, Class<?> consumer) {
+		if (null == writeMethod || writeMethod.getParameterTypes()[0] != primitive || !isLinkable(writeMethod)) {
+			return null;
+		}
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodType instantiated = MethodType.methodType(void.class, writeMethod.getDeclaringClass(), primitive);
+			CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(consumer)
+					, MethodType.methodType(void.class, Object.class, primitive), lookup.unreflect(writeMethod), instantiated);
+			return site.getTarget().invoke();
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * The spun class lives next to this one, so it can only call public methods of
+	 * public classes whose signature types this loader resolves to the same classes
+	 */
+	private static boolean isLinkable(Method method) {
+		if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+			return false;
+		}
+		if (!isVisible(method.getDeclaringClass()) || !isVisible(method.getReturnType())) {
+			return false;
+		}
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			if (!isVisible(parameterType)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isVisible(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive()) {
+			return true;
+		}
+		try {
+			return Class.forName(type.getName(), false, PropertyAccessors.class.getClassLoader()) == type;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	private static Class<?> wrap(Class<?> type) {
+		return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E extends Throwable> E rethrow(Throwable e) throws E {
+		throw (E) e;
+	}
+}
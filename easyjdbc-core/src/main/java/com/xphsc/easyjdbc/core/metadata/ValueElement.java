@@ -15,6 +15,7 @@
  */
 package com.xphsc.easyjdbc.core.metadata;
 
+import com.xphsc.easyjdbc.core.transform.setter.ParameterBinder;
 
 /**
  *  值元素
@@ -27,6 +28,7 @@ public class ValueElement implements Element {
 	private Object value;
 	private boolean clob;
 	private boolean blob;
+	private transient ParameterBinder binder;
 	
 	public ValueElement(){}
 	
@@ -39,6 +41,16 @@ public class ValueElement implements Element {
 		this.clob = clob;
 		this.blob = blob;
 	}
+
+	/**
+	 * 字段的值，非lob字段同时带上按字段类型的参数绑定器
+	 */
+	public ValueElement(Object value,FieldElement fieldElement){
+		this(value,fieldElement.isClob(),fieldElement.isBlob());
+		if(!clob&&!blob){
+			this.binder = fieldElement.getParameterBinder();
+		}
+	}
 	
 	public Object getValue() {
 		return value;
@@ -58,4 +70,10 @@ public class ValueElement implements Element {
 	public void setBlob(boolean blob) {
 		this.blob = blob;
 	}
+	public ParameterBinder getBinder() {
+		return binder;
+	}
+	public void setBinder(ParameterBinder binder) {
+		this.binder = binder;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2021  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.metadata.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads a column of the current row as the java type of the field it maps to,
+ * see {@link DefaultResultSet#reader(Class)}
+ * @author huipei.x
+ * @since 2.1.0
+ */
+@FunctionalInterface
+public interface ColumnReader {
+
+    /**
+     * @param jdbcType the {@link java.sql.Types} of the column
+     */
+    Object read(ResultSet rs, int columnIndex, int jdbcType) throws SQLException;
+}
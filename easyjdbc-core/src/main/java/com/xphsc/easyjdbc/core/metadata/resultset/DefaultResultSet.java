@@ -16,14 +16,16 @@
 package com.xphsc.easyjdbc.core.metadata.resultset;
 
 
-import com.xphsc.easyjdbc.core.metadata.type.TypeBinding;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.*;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 
 /**
@@ -34,170 +36,104 @@ import java.util.Date;
  */
 public final class DefaultResultSet {
 
+    private static final Map<Class<?>, ColumnReader> READERS = new HashMap<Class<?>, ColumnReader>();
 
-    /**
-     * 从结果集ResultSet中取值
-     */
-    public static Object getResultValue(ResultSet rs,int columnIndex,int jdbcType,Class<?> type) throws SQLException {
-        TypeBinding typeBinding=new TypeBinding();
-        String typeName = type.getName();
-        if("java.math.BigDecimal".equals(typeName)){
-            return rs.getBigDecimal(columnIndex);
-        }
-        if("java.math.BigInteger".equals(typeName)){
+    private static final ColumnReader OBJECT_READER = (rs, columnIndex, jdbcType) -> rs.getObject(columnIndex);
+
+    static {
+        READERS.put(BigDecimal.class, (rs, columnIndex, jdbcType) -> rs.getBigDecimal(columnIndex));
+        READERS.put(BigInteger.class, (rs, columnIndex, jdbcType) -> {
             BigDecimal bigDecimal = rs.getBigDecimal(columnIndex);
             return bigDecimal == null ? null : bigDecimal.toBigInteger();
-        }
-        if("boolean".equals(typeName)){
-            return rs.getBoolean(columnIndex);
-        }
-        if("java.lang.Boolean".equals(typeName)){
-            return rs.getBoolean(columnIndex);
-        }
-        if("byte".equals(typeName)){
-            return rs.getByte(columnIndex);
-        }
-        if("java.lang.Byte".equals(typeName)){
-            return rs.getByte(columnIndex);
-        }
-        if("char".equals(typeName)){
+        });
+        READERS.put(boolean.class, (rs, columnIndex, jdbcType) -> rs.getBoolean(columnIndex));
+        READERS.put(Boolean.class, (rs, columnIndex, jdbcType) -> {
+            boolean value = rs.getBoolean(columnIndex);
+            return !value && rs.wasNull() ? null : value;
+        });
+        READERS.put(byte.class, (rs, columnIndex, jdbcType) -> rs.getByte(columnIndex));
+        READERS.put(Byte.class, (rs, columnIndex, jdbcType) -> {
+            byte value = rs.getByte(columnIndex);
+            return value == 0 && rs.wasNull() ? null : value;
+        });
+        ColumnReader charReader = (rs, columnIndex, jdbcType) -> {
             String columnValue = rs.getString(columnIndex);
-            if (columnValue != null) {
-                return columnValue.charAt(0);
-            } else {
-                return null;
-            }
-        }
-        if("java.lang.Character".equals(typeName)){
-            String columnValue = rs.getString(columnIndex);
-            if (columnValue != null) {
-                return columnValue.charAt(0);
-            } else {
-                return null;
-            }
-        }
-        if("java.util.Date".equals(typeName)){
-            if(Types.DATE==jdbcType){
+            return columnValue != null && !columnValue.isEmpty() ? columnValue.charAt(0) : null;
+        };
+        READERS.put(char.class, charReader);
+        READERS.put(Character.class, charReader);
+        READERS.put(double.class, (rs, columnIndex, jdbcType) -> rs.getDouble(columnIndex));
+        READERS.put(Double.class, (rs, columnIndex, jdbcType) -> {
+            double value = rs.getDouble(columnIndex);
+            return value == 0 && rs.wasNull() ? null : value;
+        });
+        READERS.put(float.class, (rs, columnIndex, jdbcType) -> rs.getFloat(columnIndex));
+        READERS.put(Float.class, (rs, columnIndex, jdbcType) -> {
+            float value = rs.getFloat(columnIndex);
+            return value == 0 && rs.wasNull() ? null : value;
+        });
+        READERS.put(int.class, (rs, columnIndex, jdbcType) -> rs.getInt(columnIndex));
+        READERS.put(Integer.class, (rs, columnIndex, jdbcType) -> {
+            int value = rs.getInt(columnIndex);
+            return value == 0 && rs.wasNull() ? null : value;
+        });
+        READERS.put(long.class, (rs, columnIndex, jdbcType) -> rs.getLong(columnIndex));
+        READERS.put(Long.class, (rs, columnIndex, jdbcType) -> {
+            long value = rs.getLong(columnIndex);
+            return value == 0 && rs.wasNull() ? null : value;
+        });
+        READERS.put(short.class, (rs, columnIndex, jdbcType) -> rs.getShort(columnIndex));
+        READERS.put(Short.class, (rs, columnIndex, jdbcType) -> {
+            short value = rs.getShort(columnIndex);
+            return value == 0 && rs.wasNull() ? null : value;
+        });
+        READERS.put(Date.class, (rs, columnIndex, jdbcType) -> {
+            if (Types.DATE == jdbcType) {
                 java.sql.Date sqlDate = rs.getDate(columnIndex);
-                if (sqlDate != null) {
-                    return new Date(sqlDate.getTime());
-                }
-                return null;
+                return sqlDate != null ? new Date(sqlDate.getTime()) : null;
             }
-            if(Types.TIMESTAMP==jdbcType){
+            if (Types.TIMESTAMP == jdbcType) {
                 Timestamp sqlTimestamp = rs.getTimestamp(columnIndex);
-                if (sqlTimestamp != null) {
-                    return new Date(sqlTimestamp.getTime());
-                }
-                return null;
+                return sqlTimestamp != null ? new Date(sqlTimestamp.getTime()) : null;
             }
-            if(Types.TIME==jdbcType){
+            if (Types.TIME == jdbcType) {
                 java.sql.Time sqlTime = rs.getTime(columnIndex);
-                if (sqlTime != null) {
-                    return new Date(sqlTime.getTime());
-                }
-                return null;
+                return sqlTime != null ? new Date(sqlTime.getTime()) : null;
             }
-        }
-        if("java.time.LocalDate".equals(typeName)) {
-            typeBinding.initDelegateType(LocalDate.class);
-            LocalDate localDate= (LocalDate) typeBinding.getDelegate().getNullableResult(rs, columnIndex);
-            typeBinding.clearDelegate();
-            return localDate;
-
-        }
-        if("java.time.LocalDateTime".equals(typeName)) {
-            typeBinding.initDelegateType(LocalDateTime.class);
-            LocalDateTime localDateTime= (LocalDateTime) typeBinding.getDelegate().getNullableResult(rs, columnIndex);
-            typeBinding.clearDelegate();
-            return localDateTime;
-
-        }
-
-        if("java.time.LocalTime".equals(typeName)) {
-            typeBinding.initDelegateType(LocalTime.class);
-            LocalTime localTime= (LocalTime)
-            typeBinding.getDelegate().getNullableResult(rs, columnIndex);
-            typeBinding.clearDelegate();
-            return localTime;
-        }
+            return rs.getObject(columnIndex);
+        });
+        READERS.put(java.sql.Date.class, (rs, columnIndex, jdbcType) -> rs.getDate(columnIndex));
+        READERS.put(Timestamp.class, (rs, columnIndex, jdbcType) -> rs.getTimestamp(columnIndex));
+        READERS.put(java.sql.Time.class, (rs, columnIndex, jdbcType) -> rs.getTime(columnIndex));
+        READERS.put(LocalDate.class, (rs, columnIndex, jdbcType) -> rs.getObject(columnIndex, LocalDate.class));
+        READERS.put(LocalDateTime.class, (rs, columnIndex, jdbcType) -> rs.getObject(columnIndex, LocalDateTime.class));
+        READERS.put(LocalTime.class, (rs, columnIndex, jdbcType) -> rs.getObject(columnIndex, LocalTime.class));
+        READERS.put(OffsetDateTime.class, (rs, columnIndex, jdbcType) -> rs.getObject(columnIndex, OffsetDateTime.class));
+        READERS.put(OffsetTime.class, (rs, columnIndex, jdbcType) -> rs.getObject(columnIndex, OffsetTime.class));
+        READERS.put(Instant.class, (rs, columnIndex, jdbcType) -> {
+            Timestamp timestamp = rs.getTimestamp(columnIndex);
+            return timestamp != null ? timestamp.toInstant() : null;
+        });
+        READERS.put(Year.class, (rs, columnIndex, jdbcType) -> {
+            int year = rs.getInt(columnIndex);
+            return year == 0 && rs.wasNull() ? null : Year.of(year);
+        });
+    }
 
+    /**
+     * The reader of columns mapped to fields of the given type, resolved once per field;
+     * readers are stateless and shared
+     */
+    public static ColumnReader reader(Class<?> type) {
+        ColumnReader reader = READERS.get(type);
+        return reader != null ? reader : OBJECT_READER;
+    }
 
-        if("double".equals(typeName)){
-            return rs.getDouble(columnIndex);
-        }
-        if("java.lang.Double".equals(typeName)){
-            if(null!=rs.getObject(columnIndex)){
-                return rs.getDouble(columnIndex);}
-            return null;
-        }
-        if("float".equals(typeName)){
-            return rs.getFloat(columnIndex);
-        }
-        if("java.lang.Float".equals(typeName)){
-            if(null!=rs.getObject(columnIndex)) {
-                return rs.getFloat(columnIndex);
-            }
-            return null;
-        }
-        if("int".equals(typeName)){
-            return rs.getInt(columnIndex);
-        }
-        if("java.lang.Integer".equals(typeName)){
-            if(null!=rs.getObject(columnIndex)){
-                return rs.getInt(columnIndex);}
-            return null;
-        }
-        if("long".equals(typeName)){
-            return rs.getLong(columnIndex);
-        }
-        if("java.lang.Long".equals(typeName)){
-            if(null!=rs.getObject(columnIndex)){
-                return rs.getLong(columnIndex);}
-            return null;
-        }
-        if("short".equals(typeName)){
-            return rs.getShort(columnIndex);
-        }
-        if("java.lang.Short".equals(typeName)){
-            if(null!=rs.getObject(columnIndex)){
-                return rs.getShort(columnIndex);}
-            return null;
-        }
-        if("java.sql.Date".equals(typeName)){
-            return rs.getDate(columnIndex);
-        }
-        if("java.sql.Timestamp".equals(typeName)){
-            return rs.getTimestamp(columnIndex);
-        }
-        if("java.sql.Time".equals(typeName)){
-            return rs.getTime(columnIndex);
-        }
-        if("java.time.Instant".equals(typeName)){
-            typeBinding.initDelegateType(Instant.class);
-            Instant instant= (Instant) typeBinding.getDelegate().getNullableResult(rs, columnIndex);
-            typeBinding.clearDelegate();
-            return instant;
-        }
-        if("java.time.OffsetDateTime".equals(typeName)){
-            typeBinding.initDelegateType(OffsetDateTime.class);
-            OffsetDateTime instant= (OffsetDateTime) typeBinding.getDelegate().getNullableResult(rs, columnIndex);
-            typeBinding.clearDelegate();
-            return instant;
-        }
-        if("java.time.OffsetTime".equals(typeName)){
-            typeBinding.initDelegateType(OffsetTime.class);
-            OffsetTime instant= (OffsetTime) typeBinding.getDelegate().getNullableResult(rs, columnIndex);
-            typeBinding.clearDelegate();
-            return instant;
-        }
-        if("java.time.Year".equals(typeName)){
-            typeBinding.initDelegateType(Year.class);
-            Year instant= (Year) typeBinding.getDelegate().getResult(rs, columnIndex);
-            typeBinding.clearDelegate();
-            return instant;
-        }
-        return rs.getObject(columnIndex);
+    /**
+     * 从结果集ResultSet中取值
+     */
+    public static Object getResultValue(ResultSet rs,int columnIndex,int jdbcType,Class<?> type) throws SQLException {
+        return reader(type).read(rs, columnIndex, jdbcType);
     }
 
 
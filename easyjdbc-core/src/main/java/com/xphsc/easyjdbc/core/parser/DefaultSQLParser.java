@@ -20,9 +20,15 @@ package com.xphsc.easyjdbc.core.parser;
 import com.xphsc.easyjdbc.util.Beans;
 import com.xphsc.easyjdbc.util.StringUtil;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -159,6 +165,158 @@ public class DefaultSQLParser implements SQLParser {
         return flag;
     }
 
+    @Override
+    public Set<String> getTables(String sql) {
+        if (StringUtil.isBlank(sql)) {
+            return Collections.emptySet();
+        }
+        Set<String> tables = TABLES.get(sql);
+        if (tables != null) {
+            return tables;
+        }
+        tables = Collections.unmodifiableSet(parseTables(sql));
+        if (TABLES.size() >= MAX_PARSED_TABLES) {
+            TABLES.clear();
+        }
+        TABLES.put(sql, tables);
+        return tables;
+    }
+
+    @Override
+    public String normalize(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(sql.length());
+        boolean literal = false;
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (!literal && Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+                continue;
+            }
+            if (space) {
+                normalized.append(' ');
+                space = false;
+            }
+            if (c == '\'') {
+                literal = !literal;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    private static Set<String> parseTables(String sql) {
+        List<String> tokens = tokenize(sql);
+        Set<String> tables = new LinkedHashSet<String>();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i).toUpperCase();
+            if (!isTableKeyword(token) || i + 1 >= tokens.size()) {
+                continue;
+            }
+            if ("TRUNCATE".equals(token) && "TABLE".equalsIgnoreCase(tokens.get(i + 1))) {
+                continue;
+            }
+            int j = i + 1;
+            while (j < tokens.size()) {
+                String table = tokens.get(j);
+                if ("(".equals(table) || isTableTerminator(table)) {
+                    break;
+                }
+                tables.add(normalizeTable(table));
+                j++;
+                if (!TABLE_LIST_KEYWORDS.contains(token)) {
+                    break;
+                }
+                while (j < tokens.size() && !",".equals(tokens.get(j)) && !isTableTerminator(tokens.get(j))) {
+                    j++;
+                }
+                if (j >= tokens.size() || !",".equals(tokens.get(j))) {
+                    break;
+                }
+                j++;
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Join keywords include the vendor variants such as STRAIGHT_JOIN
+     */
+    private static boolean isTableKeyword(String token) {
+        return TABLE_KEYWORDS.contains(token) || token.endsWith(JOIN_SUFFIX);
+    }
+
+    private static boolean isTableTerminator(String token) {
+        String upper = token.toUpperCase();
+        return TABLE_TERMINATORS.contains(upper) || upper.endsWith(JOIN_SUFFIX);
+    }
+
+    private static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<String>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = sql.indexOf('\'', i + 1);
+                i = i < 0 ? length : i + 1;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = sql.indexOf('\n', i);
+                i = i < 0 ? length : i + 1;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = sql.indexOf("*/", i + 2);
+                i = i < 0 ? length : i + 2;
+            } else if (c == '(' || c == ')' || c == ',') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '`' || c == '"' || c == '[') {
+                int start = i;
+                while (i < length) {
+                    char n = sql.charAt(i);
+                    if (Character.isLetterOrDigit(n) || n == '_' || n == '$' || n == '.'
+                            || n == '`' || n == '"' || n == '[' || n == ']') {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                tokens.add(sql.substring(start, i));
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Canonical name of a table as tracked by the caches: quotes and brackets stripped, schema
+     * dropped and upper-cased, so {@code `order`}, {@code schema.ORDER} and {@code order} match
+     */
+    public static String normalizeTable(String table) {
+        int start = table.lastIndexOf('.') + 1;
+        StringBuilder name = new StringBuilder(table.length() - start);
+        for (int i = start; i < table.length(); i++) {
+            char c = table.charAt(i);
+            if (c != '`' && c != '"' && c != '[' && c != ']') {
+                name.append(Character.toUpperCase(c));
+            }
+        }
+        return name.toString();
+    }
+
+    private static final int MAX_PARSED_TABLES = 4096;
+    private static final Map<String, Set<String>> TABLES = new ConcurrentHashMap<String, Set<String>>();
+    private static final Set<String> TABLE_KEYWORDS = new HashSet<String>(Arrays.asList(
+            "FROM", "JOIN", "UPDATE", "INTO", "TABLE", "TRUNCATE"));
+    private static final Set<String> TABLE_LIST_KEYWORDS = new HashSet<String>(Arrays.asList("FROM", "UPDATE"));
+    private static final String JOIN_SUFFIX = "_JOIN";
+    private static final Set<String> TABLE_TERMINATORS = new HashSet<String>(Arrays.asList(
+            "WHERE", "JOIN", "INNER", "LEFT", "RIGHT", "OUTER", "FULL", "CROSS", "NATURAL", "ON", "USING",
+            "GROUP", "ORDER", "HAVING", "LIMIT", "OFFSET", "UNION", "EXCEPT", "INTERSECT", "SET", "VALUES",
+            "SELECT", "FOR", "WINDOW", "FETCH", ")"));
     private static String REGEX_HASORDERS="order\\s*by[\\w|\\W|\\s|\\S]*";
     private static String UPDATE="UPDATE";
     private static final Pattern FIELD_PLACE_HOLDER_PATTERN = Pattern.compile("\\#\\{\\s*\\w+\\s*\\}"); // 正则匹配 #{key}
@@ -15,6 +15,7 @@
  */
 package com.xphsc.easyjdbc.core.parser;
 import com.xphsc.easyjdbc.core.SimpleJdbcDao;
+import com.xphsc.easyjdbc.executor.CountExecutor;
 import com.xphsc.easyjdbc.page.PageRowBounds;
 import com.xphsc.easyjdbc.page.PageInfo;
 import com.xphsc.easyjdbc.page.PageInfoImpl;
@@ -178,10 +179,10 @@ public class DefaultSQLSelectParser implements SQLSelectParser  {
             sql = PageRowBounds.pagination(simpleJdbcDao.getEasyJdbcTemplate().getDialectName(), (String) result[0], offset, limit);
         }
         if(result[1]==null){
-            total=simpleJdbcDao.getEasyJdbcTemplate().count((String) result[0]);
+            total=new CountExecutor(simpleJdbcDao.getEasyJdbcTemplate()::getJdbcBuilder,(String) result[0],null,true).execute();
             maps=simpleJdbcDao.getEasyJdbcTemplate().getJdbcBuilder().queryForList(sql);
         }else{
-            total=simpleJdbcDao.getEasyJdbcTemplate().count((String) result[0],(Object[]) result[1]);
+            total=new CountExecutor(simpleJdbcDao.getEasyJdbcTemplate()::getJdbcBuilder,(String) result[0],(Object[]) result[1],true).execute();
             maps=simpleJdbcDao.getEasyJdbcTemplate().getJdbcBuilder().queryForList(sql, (Object[]) result[1]);
         }
         return  new PageInfoImpl<>(maps,total,pageInfo.getPageNum(),pageInfo.getPageSize());
@@ -16,6 +16,7 @@
 package com.xphsc.easyjdbc.core.parser;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author huipei.x
@@ -31,4 +32,13 @@ public interface SQLParser {
       String removeOrders(String sql);
       Boolean hasOrders(String sql);
       Map<String,Object> entityMap();
+      /**
+       * Upper-cased names of the tables a statement reads or writes, empty when none can be found
+       */
+      Set<String> getTables(String sql);
+      /**
+       * The statement with runs of whitespace outside string literals collapsed to one space, so
+       * that statements differing only in layout share a cache key
+       */
+      String normalize(String sql);
 }
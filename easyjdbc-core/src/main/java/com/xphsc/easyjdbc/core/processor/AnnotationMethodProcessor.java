@@ -22,12 +22,13 @@ package com.xphsc.easyjdbc.core.processor;
 
 
 import com.xphsc.easyjdbc.annotation.*;
+import com.xphsc.easyjdbc.core.cache.CacheExpiry;
 import com.xphsc.easyjdbc.core.exception.EasyJdbcException;
 import com.xphsc.easyjdbc.core.metadata.SQLOptionType;
 import com.xphsc.easyjdbc.core.parser.*;
+import com.xphsc.easyjdbc.core.support.SqlPreparedStatementCreator;
 import com.xphsc.easyjdbc.util.Collects;
 import com.xphsc.easyjdbc.util.StringUtil;
-import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import java.lang.annotation.Annotation;
@@ -37,6 +38,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -53,6 +55,7 @@ public class AnnotationMethodProcessor extends AbstractDaoMethodProcessor {
     private boolean useGeneratedKeys=false;
     private String keyProperty=null;
     private boolean hasInsertOrUpdatePlaceHolder=false;
+    private CacheExpiry cacheExpiry=null;
     @Override
     public Object process() {
 
@@ -100,13 +103,18 @@ public class AnnotationMethodProcessor extends AbstractDaoMethodProcessor {
            sqlOptionType.equals(SQLOptionType.SQLSELECT)
         ){
             SQLSelectParser sqlSelectParser=new DefaultSQLSelectParser();
-            return sqlSelectParser.select(
-                    sql,
-                    simpleJdbcDao,
-                    persistentClass,
-                    method,
-                    paramsMap
-            );
+            CacheExpiry.setCurrent(cacheExpiry);
+            try {
+                return sqlSelectParser.select(
+                        sql,
+                        simpleJdbcDao,
+                        persistentClass,
+                        method,
+                        paramsMap
+                );
+            } finally {
+                CacheExpiry.clearCurrent();
+            }
 
         }
 
@@ -148,7 +156,7 @@ public class AnnotationMethodProcessor extends AbstractDaoMethodProcessor {
                 final Object[] finalResult = result;
                 final Object[] finalResult1 = result;
                 simpleJdbcDao.getEasyJdbcTemplate().getJdbcBuilder().update(
-                        new PreparedStatementCreator() {
+                        new SqlPreparedStatementCreator((String) finalResult[0]) {
                             @Override
                             public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
                                 PreparedStatement ps = con.prepareStatement((String) finalResult[0], new String[]{finalKeyProperty});
@@ -224,6 +232,10 @@ public class AnnotationMethodProcessor extends AbstractDaoMethodProcessor {
                 }else{
                     keyProperty="id";
                 }
+                if(sqlOptions.cacheTtl()>=0){
+                    cacheExpiry=CacheExpiry.of(sqlOptions.cacheTtl(), TimeUnit.MILLISECONDS)
+                            .refreshAhead(sqlOptions.refreshAhead());
+                }
             };
         }
 
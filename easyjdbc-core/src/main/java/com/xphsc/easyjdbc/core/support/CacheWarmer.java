@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.support;
+
+import com.xphsc.easyjdbc.EasyJdbcOperations;
+import com.xphsc.easyjdbc.annotation.CacheWarmUp;
+import com.xphsc.easyjdbc.annotation.Dao;
+import com.xphsc.easyjdbc.core.entity.Example;
+import com.xphsc.easyjdbc.util.Assert;
+import com.xphsc.easyjdbc.util.StringUtil;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.annotation.AnnotationUtils;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Loads declared hot queries into the caches before an instance takes traffic.
+ * <p>Warm-ups are queries registered by name, {@link Example}s, dao methods annotated with
+ * {@link CacheWarmUp}, and entities by primary key. Queries fill the query cache when the
+ * template uses a local cache, entities are read through {@code findByIds} and fill the entity
+ * cache. They run on a fixed pool of at most {@link #parallelism(int)} threads, logging the
+ * progress and time of each warm-up.
+ * <p>Declared as a Spring bean, the warmer registers the annotated methods of all {@link Dao}
+ * beans and warms up once all singletons are created, before the context is refreshed; it may
+ * also run on a schedule, see {@link #schedule(long, TimeUnit)}.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class CacheWarmer implements ApplicationContextAware, SmartInitializingSingleton {
+
+    private static final Log LOGGER = LogFactory.getLog(CacheWarmer.class);
+
+    private static final int PRIMARY_KEY_BATCH_SIZE = 500;
+
+    private final EasyJdbcOperations easyJdbcOperations;
+
+    private final List<Task> tasks = new CopyOnWriteArrayList<Task>();
+
+    private int parallelism = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    private boolean warmUpOnStartup = true;
+
+    private ApplicationContext applicationContext;
+
+    private ScheduledExecutorService scheduler;
+
+    public CacheWarmer(EasyJdbcOperations easyJdbcOperations) {
+        Assert.notNull(easyJdbcOperations, "EasyJdbcOperations cannot be empty");
+        this.easyJdbcOperations = easyJdbcOperations;
+    }
+
+    /**
+     * Maximum number of warm-ups running at the same time
+     */
+    public CacheWarmer parallelism(int parallelism) {
+        Assert.isTrue(parallelism > 0, "Parallelism must be greater than 0");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Whether a warmer declared as a Spring bean warms up once the singletons are created, true by default
+     */
+    public CacheWarmer warmUpOnStartup(boolean warmUpOnStartup) {
+        this.warmUpOnStartup = warmUpOnStartup;
+        return this;
+    }
+
+    public CacheWarmer add(String name, Supplier<?> query) {
+        Assert.hasText(name, "Warm-up name cannot be empty");
+        Assert.notNull(query, "Warm-up query cannot be empty");
+        this.tasks.add(new Task(name, query));
+        return this;
+    }
+
+    /**
+     * Register the list query of an example, a new example is created for every run
+     * since examples keep the parameters they were executed with
+     */
+    public CacheWarmer addExample(String name, Supplier<Example> example) {
+        Assert.notNull(example, "Example cannot be empty");
+        return add(name, () -> example.get().list());
+    }
+
+    /**
+     * Load entities by primary key into the entity cache, in batches
+     */
+    public CacheWarmer addEntities(String name, Class<?> entityClass, Supplier<? extends Iterable<?>> primaryKeys) {
+        Assert.notNull(entityClass, "Entity type cannot be empty");
+        Assert.notNull(primaryKeys, "Ids cannot be empty");
+        return add(name, () -> {
+            int count = 0;
+            List<Object> batch = new ArrayList<Object>(PRIMARY_KEY_BATCH_SIZE);
+            for (Object primaryKey : primaryKeys.get()) {
+                batch.add(primaryKey);
+                if (batch.size() == PRIMARY_KEY_BATCH_SIZE) {
+                    count += easyJdbcOperations.findByIds(entityClass, batch).size();
+                    batch = new ArrayList<Object>(PRIMARY_KEY_BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                count += easyJdbcOperations.findByIds(entityClass, batch).size();
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Register the methods of a dao annotated with {@link CacheWarmUp}
+     */
+    public CacheWarmer addDao(Object dao) {
+        Assert.notNull(dao, "Dao cannot be empty");
+        for (Method method : dao.getClass().getMethods()) {
+            CacheWarmUp warmUp = AnnotationUtils.findAnnotation(method, CacheWarmUp.class);
+            if (warmUp == null) {
+                continue;
+            }
+            Assert.isTrue(method.getParameterTypes().length == 0,
+                    "Method: " + method + " annotated with CacheWarmUp must have no parameters");
+            String name = StringUtil.isNotBlank(warmUp.value()) ? warmUp.value()
+                    : method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            add(name, () -> invoke(dao, method));
+        }
+        return this;
+    }
+
+    private static Object invoke(Object dao, Method method) {
+        try {
+            return method.invoke(dao);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getTargetException();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Run all warm-ups and wait for them, failures are logged and do not stop the others
+     */
+    public Report warmUp() {
+        List<Task> pending = new ArrayList<Task>(this.tasks);
+        if (pending.isEmpty()) {
+            return new Report(0, 0, 0);
+        }
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, pending.size()), new WarmUpThreadFactory());
+        CompletionService<Long> completion = new ExecutorCompletionService<Long>(executor);
+        Map<Future<Long>, Task> futures = new HashMap<Future<Long>, Task>();
+        for (Task task : pending) {
+            futures.put(completion.submit(task), task);
+        }
+        int failed = 0;
+        int done = 0;
+        try {
+            while (done < pending.size()) {
+                Future<Long> future = completion.take();
+                Task task = futures.get(future);
+                done++;
+                try {
+                    long nanos = future.get();
+                    if (LOGGER.isInfoEnabled()) {
+                        LOGGER.info("Cache warm-up " + done + "/" + pending.size() + " [" + task.name + "] "
+                                + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms");
+                    }
+                } catch (ExecutionException e) {
+                    failed++;
+                    LOGGER.warn("Cache warm-up " + done + "/" + pending.size() + " [" + task.name + "] failed", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            failed += pending.size() - done;
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        Report report = new Report(pending.size(), failed, System.nanoTime() - start);
+        LOGGER.info("Cache warm-up finished, " + report);
+        return report;
+    }
+
+    /**
+     * Warm up again every period, e.g. ahead of the expiry of the cached results, replacing a previous schedule
+     */
+    public synchronized void schedule(long period, TimeUnit unit) {
+        stop();
+        scheduler = Executors.newSingleThreadScheduledExecutor(new WarmUpThreadFactory());
+        scheduler.scheduleWithFixedDelay(this::warmUp, period, period, unit);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (applicationContext != null) {
+            for (Object dao : applicationContext.getBeansWithAnnotation(Dao.class).values()) {
+                addDao(dao);
+            }
+        }
+        if (warmUpOnStartup) {
+            warmUp();
+        }
+    }
+
+    private static final class Task implements Callable<Long> {
+        private final String name;
+        private final Supplier<?> query;
+
+        private Task(String name, Supplier<?> query) {
+            this.name = name;
+            this.query = query;
+        }
+
+        @Override
+        public Long call() {
+            long start = System.nanoTime();
+            query.get();
+            return System.nanoTime() - start;
+        }
+    }
+
+    private static final class WarmUpThreadFactory implements ThreadFactory {
+        private static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "easyjdbc-cache-warmup-" + COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Outcome of a warm-up run.
+     */
+    public static final class Report {
+        private final int tasks;
+        private final int failed;
+        private final long elapsedNanos;
+
+        private Report(int tasks, int failed, long elapsedNanos) {
+            this.tasks = tasks;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getTasks() {
+            return tasks;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public long getElapsed(TimeUnit unit) {
+            return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public boolean isSuccessful() {
+            return failed == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "tasks=" + tasks + ", failed=" + failed + ", elapsed=" + getElapsed(TimeUnit.MILLISECONDS) + " ms";
+        }
+    }
+}
@@ -15,6 +15,13 @@
  */
 package com.xphsc.easyjdbc.core.support;
 
+import com.xphsc.easyjdbc.core.cache.Cache;
+import com.xphsc.easyjdbc.core.cache.CacheExpiry;
+import com.xphsc.easyjdbc.core.cache.EntityCache;
+import com.xphsc.easyjdbc.core.cache.NegativeCache;
+import com.xphsc.easyjdbc.core.cache.SegmentedLruCache;
+import com.xphsc.easyjdbc.core.cache.InvalidationBus;
+import com.xphsc.easyjdbc.core.cache.TableScopedCache;
 import com.xphsc.easyjdbc.core.lambda.LambdaSupplier;
 import com.xphsc.easyjdbc.core.lambda.Reflections;
 import com.xphsc.easyjdbc.page.PageInfo;
@@ -48,6 +55,64 @@ public abstract class EasyJdbcAccessor implements InitializingBean {
      *Setting up local cache
      */
     private boolean useLocalCache;
+    /**
+     *Local cache implementation, a bounded shared cache is used when not set
+     */
+    private Cache localCache;
+    /**
+     *Default time-to-live of locally cached results, entries never expire when not set
+     */
+    private CacheExpiry cacheExpiry;
+    /**
+     *Setting up copy-on-read, readers of cached results get copies of their own
+     */
+    private boolean copyOnRead;
+    /**
+     *Setting up query coalescing, identical uncached queries running at the same time are executed once
+     */
+    private boolean coalesceQueries;
+    /**
+     *Setting up compiled mapping, entity rows are mapped and bound through accessors compiled per field
+     */
+    private boolean compiledMapping;
+    /**
+     *Setting up the entity cache serving primary key lookups
+     */
+    private boolean useEntityCache;
+    /**
+     *Entity cache implementation, a bounded cache of this template is used when not set
+     */
+    private EntityCache entityCache;
+    /**
+     *Setting up the cache of primary keys known not to exist
+     */
+    private boolean useNegativeCache;
+    /**
+     *Negative cache implementation, a bounded cache of this template is used when not set
+     */
+    private NegativeCache negativeCache;
+    /**
+     *Setting up the cache of page totals
+     */
+    private boolean usePageTotalCache;
+    /**
+     *Page total cache implementation, a bounded cache of this template is used when not set
+     */
+    private Cache pageTotalCache;
+    /**
+     *Time-to-live of cached page totals, one minute when not set
+     */
+    private CacheExpiry pageTotalExpiry;
+    /**
+     *Bounded caches of this template, used when a cache is enabled without an implementation
+     */
+    private volatile EntityCache defaultEntityCache;
+    private volatile NegativeCache defaultNegativeCache;
+    private volatile Cache defaultPageTotalCache;
+    /**
+     *Transport of cache invalidations to and from other nodes, none when not set
+     */
+    private InvalidationBus invalidationBus;
     /**
      *Setting Display SQL
      */
@@ -172,7 +237,10 @@ public abstract class EasyJdbcAccessor implements InitializingBean {
     }
 
     public JdbcBuilder getJdbcBuilder(){
-        JdbcBuilder jdbcBuilder=new JdbcBuilder(this::getJdbcTemplate,this::isUseLocalCache, this::isShowSQL,this::getInterfaceClass);
+        JdbcBuilder jdbcBuilder=new JdbcBuilder(this::getJdbcTemplate,this::isUseLocalCache, this::isShowSQL,this::getInterfaceClass,this::getLocalCache,this::getCacheExpiry,
+                this::isCopyOnRead,this::isUseEntityCache,this::getEntityCache,this::isUseNegativeCache,this::getNegativeCache,
+                this::isUsePageTotalCache,this::getPageTotalCache,this::getPageTotalExpiry,this::getInvalidationBus,
+                this::isCompiledMapping,this::isCoalesceQueries);
         return jdbcBuilder;
     }
 
@@ -205,6 +273,94 @@ public abstract class EasyJdbcAccessor implements InitializingBean {
         return this.useLocalCache=useLocalCache;
     };
 
+    /**
+     * Set the cache used when local cache is enabled, e.g. a bounded {@link com.xphsc.easyjdbc.core.cache.SegmentedLruCache},
+     * entries are invalidated by the tables written through this template
+     */
+    public void localCache(Cache localCache){
+        this.localCache=localCache!=null?TableScopedCache.of(localCache):null;
+    }
+
+    /**
+     * Set the default time-to-live and refresh-ahead of locally cached results,
+     * dao methods may override it with {@link com.xphsc.easyjdbc.annotation.SqlOptions#cacheTtl()}
+     */
+    public void cacheExpiry(CacheExpiry cacheExpiry){
+        this.cacheExpiry=cacheExpiry;
+    }
+
+    /**
+     * Cache immutable snapshots of results and hand every reader a copy of its own, so callers
+     * mutating cached lists or entities do not affect each other
+     */
+    public boolean copyOnRead(boolean copyOnRead){
+        return this.copyOnRead=copyOnRead;
+    }
+
+    /**
+     * Run identical uncached queries issued at the same time by different threads once, every
+     * caller getting a copy of its own of the result
+     */
+    public boolean coalesceQueries(boolean coalesceQueries){
+        return this.coalesceQueries=coalesceQueries;
+    }
+
+    /**
+     * Map entity rows through assigners compiled per field and bind entity values by field type,
+     * instead of the reflective row mapper and setObject
+     */
+    public boolean compiledMapping(boolean compiledMapping){
+        return this.compiledMapping=compiledMapping;
+    }
+
+    /**
+     * Cache entities by primary key for getByPrimaryKey, getById, exists and findByIds
+     */
+    public boolean useEntityCache(boolean useEntityCache){
+        return this.useEntityCache=useEntityCache;
+    }
+
+    public void entityCache(EntityCache entityCache){
+        this.entityCache=entityCache;
+    }
+
+    /**
+     * Remember for a short time the primary keys getByPrimaryKey, getById and exists did not find
+     */
+    public boolean useNegativeCache(boolean useNegativeCache){
+        return this.useNegativeCache=useNegativeCache;
+    }
+
+    public void negativeCache(NegativeCache negativeCache){
+        this.negativeCache=negativeCache;
+    }
+
+    /**
+     * Cache the totals counted by findByPage and the page queries of Example and EasyJdbcSelector,
+     * entries are invalidated by the tables written through this template
+     */
+    public boolean usePageTotalCache(boolean usePageTotalCache){
+        return this.usePageTotalCache=usePageTotalCache;
+    }
+
+    public void pageTotalCache(Cache pageTotalCache){
+        this.pageTotalCache=pageTotalCache;
+    }
+
+    public void pageTotalExpiry(CacheExpiry pageTotalExpiry){
+        this.pageTotalExpiry=pageTotalExpiry;
+    }
+
+    /**
+     * Publish the writes of this template to other nodes and apply theirs to the local caches
+     */
+    public void invalidationBus(InvalidationBus invalidationBus){
+        this.invalidationBus=invalidationBus;
+        if(invalidationBus!=null){
+            invalidationBus.subscribe(event -> getJdbcBuilder().invalidationReceiver().onInvalidation(event));
+        }
+    }
+
     public void   interfaceClass(String interfaceClass){
         this.interfaceClass=interfaceClass;
     };
@@ -213,6 +369,88 @@ public abstract class EasyJdbcAccessor implements InitializingBean {
         return useLocalCache;
     }
 
+    private Cache getLocalCache() {
+        return localCache;
+    }
+
+    private CacheExpiry getCacheExpiry() {
+        return cacheExpiry;
+    }
+
+    private boolean isCopyOnRead() {
+        return copyOnRead;
+    }
+
+    private boolean isCoalesceQueries() {
+        return coalesceQueries;
+    }
+
+    private boolean isCompiledMapping() {
+        return compiledMapping;
+    }
+
+    private boolean isUseEntityCache() {
+        return useEntityCache;
+    }
+
+    private EntityCache getEntityCache() {
+        if(entityCache!=null||!useEntityCache){
+            return entityCache;
+        }
+        if(defaultEntityCache==null){
+            synchronized(this){
+                if(defaultEntityCache==null){
+                    defaultEntityCache=new EntityCache();
+                }
+            }
+        }
+        return defaultEntityCache;
+    }
+
+    private boolean isUseNegativeCache() {
+        return useNegativeCache;
+    }
+
+    private NegativeCache getNegativeCache() {
+        if(negativeCache!=null||!useNegativeCache){
+            return negativeCache;
+        }
+        if(defaultNegativeCache==null){
+            synchronized(this){
+                if(defaultNegativeCache==null){
+                    defaultNegativeCache=new NegativeCache();
+                }
+            }
+        }
+        return defaultNegativeCache;
+    }
+
+    private boolean isUsePageTotalCache() {
+        return usePageTotalCache;
+    }
+
+    private Cache getPageTotalCache() {
+        if(pageTotalCache!=null||!usePageTotalCache){
+            return pageTotalCache;
+        }
+        if(defaultPageTotalCache==null){
+            synchronized(this){
+                if(defaultPageTotalCache==null){
+                    defaultPageTotalCache=new SegmentedLruCache("PageTotalCache");
+                }
+            }
+        }
+        return defaultPageTotalCache;
+    }
+
+    private CacheExpiry getPageTotalExpiry() {
+        return pageTotalExpiry;
+    }
+
+    private InvalidationBus getInvalidationBus() {
+        return invalidationBus;
+    }
+
     private boolean isShowSQL() {
         return showSQL;
     }
@@ -15,22 +15,63 @@
  */
 package com.xphsc.easyjdbc.core.support;
 import com.xphsc.easyjdbc.core.cache.Cache;
+import com.xphsc.easyjdbc.core.cache.CacheExpiry;
+import com.xphsc.easyjdbc.core.cache.CacheInvalidationReceiver;
 import com.xphsc.easyjdbc.core.cache.CacheKey;
-import com.xphsc.easyjdbc.core.cache.PerpetualCache;
+import com.xphsc.easyjdbc.core.cache.CacheRefresher;
+import com.xphsc.easyjdbc.core.cache.EntityCache;
+import com.xphsc.easyjdbc.core.cache.InvalidationBus;
+import com.xphsc.easyjdbc.core.cache.InvalidationEvent;
+import com.xphsc.easyjdbc.core.cache.NegativeCache;
+import com.xphsc.easyjdbc.core.cache.ResultSnapshots;
+import com.xphsc.easyjdbc.core.cache.SegmentedLruCache;
 import com.xphsc.easyjdbc.core.cache.SimpleCachekeyBuiler;
+import com.xphsc.easyjdbc.core.cache.SingleFlight;
+import com.xphsc.easyjdbc.core.cache.TableScopedCache;
+import com.xphsc.easyjdbc.core.cache.TableVersions;
 import com.xphsc.easyjdbc.core.exception.JdbcDataException;
 import com.xphsc.easyjdbc.core.lambda.BooleanSupplier;
 import com.xphsc.easyjdbc.core.lambda.LambdaSupplier;
 import com.xphsc.easyjdbc.core.lambda.Reflections;
 import com.xphsc.easyjdbc.core.lambda.StringSupplier;
+import com.xphsc.easyjdbc.core.metadata.DynamicEntityElement;
+import com.xphsc.easyjdbc.core.metadata.ElementResolver;
+import com.xphsc.easyjdbc.core.metadata.EntityElement;
+import com.xphsc.easyjdbc.core.metadata.EntityCreator;
+import com.xphsc.easyjdbc.core.metadata.EntityMetadataProvider;
+import com.xphsc.easyjdbc.core.metadata.ValueElement;
+import com.xphsc.easyjdbc.core.parser.DefaultSQLParser;
+import com.xphsc.easyjdbc.core.parser.SQLParser;
+import com.xphsc.easyjdbc.core.transform.ColumnarResult;
+import com.xphsc.easyjdbc.core.transform.ColumnarResultSetExtractor;
+import com.xphsc.easyjdbc.core.transform.CompactRow;
+import com.xphsc.easyjdbc.core.transform.CompactRowMapper;
+import com.xphsc.easyjdbc.core.transform.CompiledEntityRowMapper;
+import com.xphsc.easyjdbc.core.transform.ConstructorRowMapper;
+import com.xphsc.easyjdbc.core.transform.DynamicEntityRowMapper;
+import com.xphsc.easyjdbc.core.transform.EntityRowMapper;
+import com.xphsc.easyjdbc.core.transform.ReusableRowMapper;
+import com.xphsc.easyjdbc.core.transform.setter.CompiledValueBatchSetter;
+import com.xphsc.easyjdbc.core.transform.setter.CompiledValueSetter;
+import com.xphsc.easyjdbc.core.transform.setter.ValueBatchSetter;
+import com.xphsc.easyjdbc.core.transform.setter.ValueSetter;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.*;
 import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.support.lob.LobHandler;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * @author huipei.x
@@ -43,7 +84,43 @@ public class JdbcBuilder extends SimpleCachekeyBuiler {
 
     private JdbcTemplate jdbcTemplate;
 
-    private volatile static Cache  CACHE ;
+    private volatile static TableScopedCache  CACHE ;
+
+    private static final SQLParser SQL_PARSER = new DefaultSQLParser();
+
+    private static final SingleFlight SINGLE_FLIGHT = new SingleFlight();
+
+    private static final Map<Class<?>, Boolean> EQUALS_DEFINED = new ConcurrentHashMap<Class<?>, Boolean>();
+
+    private TableScopedCache cache;
+
+    private CacheExpiry cacheExpiry;
+
+    private boolean copyOnRead;
+
+    private boolean compiledMapping;
+
+    private boolean coalesceQueries;
+
+    private EntityCache entityCache;
+
+    private NegativeCache negativeCache;
+
+    /**
+     * Time-to-live of cached page totals when none is configured
+     */
+    public static final CacheExpiry DEFAULT_PAGE_TOTAL_EXPIRY = CacheExpiry.of(60, TimeUnit.SECONDS);
+
+    /**
+     * Rows fetched per round trip by streaming queries when neither the query nor the JdbcTemplate set one
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private TableScopedCache pageTotalCache;
+
+    private CacheExpiry pageTotalExpiry;
+
+    private InvalidationBus invalidationBus;
 
     private boolean useLocalCache;
 
@@ -51,25 +128,166 @@ public class JdbcBuilder extends SimpleCachekeyBuiler {
 
     protected  Log logger;
 
-    public <T> JdbcBuilder(LambdaSupplier<T> jdbcTemplate, BooleanSupplier useLocalCache, BooleanSupplier showSQL,StringSupplier interfaceClass) {
+    public <T,C,E,EC,NC,PC,PE,B> JdbcBuilder(LambdaSupplier<T> jdbcTemplate, BooleanSupplier useLocalCache, BooleanSupplier showSQL,StringSupplier interfaceClass,LambdaSupplier<C> localCache,LambdaSupplier<E> cacheExpiry,
+                                  BooleanSupplier copyOnRead,BooleanSupplier useEntityCache,LambdaSupplier<EC> entityCache,BooleanSupplier useNegativeCache,LambdaSupplier<NC> negativeCache,
+                                  BooleanSupplier usePageTotalCache,LambdaSupplier<PC> pageTotalCache,LambdaSupplier<PE> pageTotalExpiry,LambdaSupplier<B> invalidationBus,
+                                  BooleanSupplier compiledMapping,BooleanSupplier coalesceQueries) {
         this.jdbcTemplate=Reflections.classForLambdaSupplier(jdbcTemplate);
+        Cache cache=Reflections.classForLambdaSupplier(localCache);
+        this.cache=cache!=null?TableScopedCache.of(cache):getCacheInstance();
+        CacheExpiry expiry=Reflections.classForLambdaSupplier(cacheExpiry);
+        this.cacheExpiry=expiry!=null?expiry:CacheExpiry.NONE;
+        this.copyOnRead=copyOnRead.getAsBoolean();
+        this.compiledMapping=compiledMapping.getAsBoolean();
+        this.coalesceQueries=coalesceQueries.getAsBoolean();
+        if(useEntityCache.getAsBoolean()){
+            this.entityCache=Reflections.classForLambdaSupplier(entityCache);
+        }
+        if(useNegativeCache.getAsBoolean()){
+            this.negativeCache=Reflections.classForLambdaSupplier(negativeCache);
+        }
+        if(usePageTotalCache.getAsBoolean()){
+            Cache customPageTotalCache=Reflections.classForLambdaSupplier(pageTotalCache);
+            if(customPageTotalCache instanceof TableScopedCache){
+                customPageTotalCache=((TableScopedCache) customPageTotalCache).getDelegate();
+            }
+            //totals share the table versions of the query cache, so the writes invalidating queries invalidate them too
+            this.pageTotalCache=new TableScopedCache(customPageTotalCache, this.cache.getTableVersions());
+            CacheExpiry customPageTotalExpiry=Reflections.classForLambdaSupplier(pageTotalExpiry);
+            this.pageTotalExpiry=customPageTotalExpiry!=null?customPageTotalExpiry:DEFAULT_PAGE_TOTAL_EXPIRY;
+        }
+        this.invalidationBus=Reflections.classForLambdaSupplier(invalidationBus);
         this.useLocalCache=useLocalCache.getAsBoolean();
         this.showSQL=showSQL.getAsBoolean();
          logger = LogFactory.getLog(interfaceClass.get());
 
     }
 
-    private static Cache getCacheInstance(){
+    private static TableScopedCache getCacheInstance(){
         if(CACHE==null){
             synchronized(Cache.class){
                 if (CACHE == null){
-                    CACHE = new PerpetualCache("Localcache");
+                    CACHE = new TableScopedCache(new SegmentedLruCache("Localcache"));
                 }
             }
         }
         return CACHE;
     }
 
+    /**
+     * The entity cache serving primary key lookups, null when it is disabled or a transaction
+     * is active, entities read inside a transaction may not be committed
+     */
+    public EntityCache getEntityCache(){
+        return entityCache!=null&&!TransactionSynchronizationManager.isSynchronizationActive()?entityCache:null;
+    }
+
+    /**
+     * The cache of primary keys known not to exist, null when it is disabled or a transaction
+     * is active, rows inserted by other transactions are not visible to it
+     */
+    public NegativeCache getNegativeCache(){
+        return negativeCache!=null&&!TransactionSynchronizationManager.isSynchronizationActive()?negativeCache:null;
+    }
+
+    /**
+     * The value to keep in a cache for a result handed to the caller that loaded it, an
+     * immutable snapshot of it when copy-on-read is enabled
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T toCached(T value){
+        return copyOnRead?(T) ResultSnapshots.snapshot(value):value;
+    }
+
+    /**
+     * The value to hand to a reader for a cached value, a copy of its own when copy-on-read is enabled
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T fromCached(T value){
+        return copyOnRead?(T) ResultSnapshots.copy(value):value;
+    }
+
+    /**
+     * A cached value handed to a reader as the result of the query that cached it
+     */
+    @SuppressWarnings("unchecked")
+    private <R> R cachedResult(Object value){
+        return (R) fromCached(value);
+    }
+
+    /**
+     * The row mapper of an entity, its canonical constructor when it has one, the one generated at
+     * build time when present, else compiled per result set when compiled mapping is enabled
+     */
+    public <T> RowMapper<T> entityRowMapper(LobHandler lobHandler,EntityElement entityElement,Class<?> persistentClass){
+        if(EntityCreator.of(persistentClass)!=null){
+            return new ConstructorRowMapper<T>(lobHandler,entityElement,persistentClass);
+        }
+        EntityMetadataProvider provider=ElementResolver.getMetadataProvider(persistentClass);
+        if(provider!=null){
+            return provider.rowMapper();
+        }
+        return compiledMapping?new CompiledEntityRowMapper<T>(lobHandler,entityElement,persistentClass)
+                :new EntityRowMapper<T>(lobHandler,entityElement,persistentClass);
+    }
+
+    /**
+     * The row mapper of a dynamic entity, its canonical constructor when it has one
+     */
+    public <T> RowMapper<T> dynamicEntityRowMapper(LobHandler lobHandler,DynamicEntityElement dynamicEntityElement,Class<?> dynamicEntityClass){
+        return EntityCreator.of(dynamicEntityClass)!=null?new ConstructorRowMapper<T>(lobHandler,dynamicEntityElement,dynamicEntityClass)
+                :new DynamicEntityRowMapper<T>(lobHandler,dynamicEntityElement,dynamicEntityClass);
+    }
+
+    /**
+     * The setter of entity values, binding them by field type when compiled mapping is enabled
+     */
+    public PreparedStatementSetter valueSetter(LobHandler lobHandler,List<ValueElement> valueElements){
+        return compiledMapping?new CompiledValueSetter(lobHandler,valueElements):new ValueSetter(lobHandler,valueElements);
+    }
+
+    /**
+     * The batch setter of entity values, binding them by field type when compiled mapping is enabled
+     */
+    public BatchPreparedStatementSetter valueBatchSetter(LobHandler lobHandler,List<LinkedList<ValueElement>> batchValueElements){
+        return compiledMapping?new CompiledValueBatchSetter(lobHandler,batchValueElements):new ValueBatchSetter(lobHandler,batchValueElements);
+    }
+
+    /**
+     * Iterate the rows of a query as they are fetched, bypassing the result caches. A fetch size
+     * of 0 falls back to the one of the JdbcTemplate, else to {@link #DEFAULT_FETCH_SIZE}
+     */
+    public <T> ResultSetIterator<T> iterate(String sql, Object[] args, RowMapper<T> rowMapper, int fetchSize) throws DataAccessException {
+        getShowSQL(sql, args);
+        int rows=fetchSize!=0?fetchSize:jdbcTemplate.getFetchSize()!=0?jdbcTemplate.getFetchSize():DEFAULT_FETCH_SIZE;
+        return new ResultSetIterator<T>(jdbcTemplate, sql, args, rowMapper, rows);
+    }
+
+    /**
+     * Push the rows of a query to the handler as they are fetched and drop them, bypassing the
+     * result caches. With reuse, mappers that support it fill one instance for all rows
+     * @return the number of rows handled
+     */
+    public <T> long forEach(String sql, Object[] args, RowMapper<T> rowMapper, RowHandler<? super T> handler, int fetchSize, boolean reuse) throws DataAccessException {
+        RowMapper<T> mapper=reuse&&rowMapper instanceof ReusableRowMapper?((ReusableRowMapper<T>) rowMapper).reusing():rowMapper;
+        long rows=0;
+        try(ResultSetIterator<T> iterator=iterate(sql, args, mapper, fetchSize)){
+            while(iterator.hasNext()){
+                handler.handle(iterator.next());
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Read the result of an analytic query column by column into primitive arrays, bypassing the result caches
+     */
+    public ColumnarResult queryForColumns(String sql, Object... args) throws DataAccessException {
+        getShowSQL(sql, args);
+        return jdbcTemplate.query(sql, args, new ColumnarResultSetExtractor());
+    }
+
     public <T> List<T> query(String sql, Object[] args, RowMapper<T> rowMapper) throws DataAccessException {
         return queryBuilder(sql,args,rowMapper);
     }
@@ -106,8 +324,32 @@ public class JdbcBuilder extends SimpleCachekeyBuiler {
     }
 
 
+    /**
+     * Total row count behind a paged query. When the page total cache is enabled, totals are
+     * cached by the normalized count statement and its parameters, with their own time-to-live,
+     * and invalidated by writes to the tables they count
+     */
+    public Long queryForTotal(String countSql, Object... args) throws DataAccessException {
+        if(pageTotalCache==null||TransactionSynchronizationManager.isSynchronizationActive()){
+            return selectOne(countSql, null, Long.class, null, args);
+        }
+        String sql=SQL_PARSER.normalize(countSql);
+        CacheKey cacheKey=createCacheKey(sql, args, Long.class, null, Long.class);
+        TableScopedCache.Entry entry=pageTotalCache.getEntry(cacheKey);
+        if(entry!=null){
+            pageTotalCache.getStats().recordHit();
+            return (Long) entry.getValue();
+        }
+        pageTotalCache.getStats().recordMiss();
+        return fromCached(coalesce(cacheKey, () -> load(pageTotalCache, cacheKey, sql, pageTotalExpiry,
+                () -> executeOne(sql, null, Long.class, null, args))));
+    }
+
+    /**
+     * Rows are {@link CompactRow compact rows} sharing one column index
+     */
     public List<Map<String, Object>> queryForList(String sql, Object... args) throws DataAccessException {
-        return queryBuilder(sql, args, null);
+        return queryBuilder(sql, args, new CompactRowMapper());
     }
 
 
@@ -119,26 +361,26 @@ public class JdbcBuilder extends SimpleCachekeyBuiler {
     public int update(String sql, PreparedStatementSetter pss) throws DataAccessException {
         getShowSQL(sql, null);
         int rows=jdbcTemplate.update(sql, pss);
-        getCacheInstance().clear();
+        invalidate(sql);
         return rows;
     }
 
     public int update(PreparedStatementCreator psc) throws DataAccessException {
         int rows= jdbcTemplate.update(psc);
-        getCacheInstance().clear();
+        invalidate(psc);
         return rows;
     }
     public int update(String sql, Object... args) throws DataAccessException {
         getShowSQL(sql, args);
         int rows=jdbcTemplate.update(sql, args);
-        getCacheInstance().clear();
+        invalidate(sql);
         return rows;
     }
 
     public int update(final PreparedStatementCreator psc, final KeyHolder generatedKeyHolder)
             throws DataAccessException {
         int rows= jdbcTemplate.update(psc, generatedKeyHolder);
-        getCacheInstance().clear();
+        invalidate(psc);
        return  rows;
     }
 
@@ -146,7 +388,7 @@ public class JdbcBuilder extends SimpleCachekeyBuiler {
     public int[] batchUpdate(String sql, final BatchPreparedStatementSetter pss) throws DataAccessException {
         getShowSQL(sql, null);
         int[] rows=jdbcTemplate.batchUpdate(sql, pss);
-        getCacheInstance().clear();
+        invalidate(sql);
         return rows;
     }
 
@@ -154,7 +396,53 @@ public class JdbcBuilder extends SimpleCachekeyBuiler {
     public int[] batchUpdate(String sql) throws DataAccessException {
         getShowSQL(sql, null);
         int[] rows=jdbcTemplate.batchUpdate(sql);
-        getCacheInstance().clear();
+        invalidate(sql);
+        return rows;
+    }
+
+    /**
+     * Update rows of an entity by primary key, evicting exactly those entities from the entity and negative caches
+     */
+    public int update(Class<?> entityClass, Collection<?> primaryKeys, String sql, PreparedStatementSetter pss) throws DataAccessException {
+        getShowSQL(sql, null);
+        int rows=jdbcTemplate.update(sql, pss);
+        invalidate(entityClass, primaryKeys, sql);
+        return rows;
+    }
+
+    public int update(Class<?> entityClass, Collection<?> primaryKeys, String sql, Object... args) throws DataAccessException {
+        getShowSQL(sql, args);
+        int rows=jdbcTemplate.update(sql, args);
+        invalidate(entityClass, primaryKeys, sql);
+        return rows;
+    }
+
+    public int[] batchUpdate(Class<?> entityClass, Collection<?> primaryKeys, String sql, BatchPreparedStatementSetter pss) throws DataAccessException {
+        getShowSQL(sql, null);
+        int[] rows=jdbcTemplate.batchUpdate(sql, pss);
+        invalidate(entityClass, primaryKeys, sql);
+        return rows;
+    }
+
+    /**
+     * Insert a row of an entity, evicting its primary key, given or generated by the database,
+     * from the entity and negative caches
+     */
+    public int update(Class<?> entityClass, Object primaryKey, PreparedStatementCreator psc, KeyHolder generatedKeyHolder) throws DataAccessException {
+        int rows= jdbcTemplate.update(psc, generatedKeyHolder);
+        List<Object> primaryKeys=new ArrayList<Object>(2);
+        if(primaryKey!=null){
+            primaryKeys.add(primaryKey);
+        }
+        List<Map<String, Object>> keyList=generatedKeyHolder.getKeyList();
+        if(keyList.size()==1&&keyList.get(0).size()==1){
+            primaryKeys.add(keyList.get(0).values().iterator().next());
+        }
+        if(!primaryKeys.isEmpty()&&psc instanceof SqlProvider){
+            invalidate(entityClass, primaryKeys, ((SqlProvider) psc).getSql());
+        }else{
+            invalidate(psc);
+        }
         return rows;
     }
 
@@ -169,70 +457,259 @@ public class JdbcBuilder extends SimpleCachekeyBuiler {
     public void execute(final String sql){
          getShowSQL(sql, null);
          jdbcTemplate.execute(sql);
+         if(!isSelect(sql)){
+             invalidate(sql);
+         }
     }
 
     private <T> List<T> queryBuilder(String sql, Object[] args, RowMapper<T> rowMapper) throws DataAccessException {
-        SqlCacheProvider sqlProvider=new DefaultCacheSqlProvider(sql,args);
-        List<T>  result = new ArrayList<>();
-       if(rowMapper!=null){
-           result= (List<T>)jdbcTemplate.query(sql, args, new RowMapperResultSetExtractor<T>(rowMapper));
-       }else{
-           result= (List<T>) jdbcTemplate.queryForList(sql,args);
-       }
-        if(useLocalCache){
-            CacheKey cacheKey =this.getCachekeyBuilder(sqlProvider).createCachekey();
-            Object cacheObject = getCacheInstance().getOject(cacheKey);
-            if (cacheObject == null) {
-                getShowSQL(sql,args);
-                List<T> object =result;
-                getCacheInstance().putObject(cacheKey, object);
-                return object;
-            }else{
-                return (List<T>) cacheObject;
-            }
-
-        }else{
-            getShowSQL(sql,args);
-            return result;
+        CacheKey cacheKey=createCacheKey(sql, args, List.class, rowMapper, null);
+        Supplier<List<T>> query=() -> executeQuery(sql, args, rowMapper);
+        if(cacheKey==null){
+            return query.get();
         }
+        return useLocalCache?cached(cacheKey, sql, query):coalesceUncached(cacheKey, query);
+    }
 
+    private <T> List<T> executeQuery(String sql, Object[] args, RowMapper<T> rowMapper) throws DataAccessException {
+        getShowSQL(sql,args);
+        if(rowMapper!=null){
+            return jdbcTemplate.query(sql, args, new RowMapperResultSetExtractor<T>(rowMapper));
+        }
+        return (List<T>) jdbcTemplate.queryForList(sql,args);
     }
 
 
     private<T> T selectOne(String sql, RowMapper<T> rowMapper,Class<T> requiredType,  int[] argTypes,Object... args)  throws DataAccessException {
-        T  result = null;
+        CacheKey cacheKey=createCacheKey(sql, args, Object.class, rowMapper, requiredType);
+        Supplier<T> query=() -> executeOne(sql, rowMapper, requiredType, argTypes, args);
+        if(cacheKey==null){
+            return query.get();
+        }
+        return useLocalCache?cached(cacheKey, sql, query):coalesceUncached(cacheKey, query);
+    }
+
+    private<T> T executeOne(String sql, RowMapper<T> rowMapper,Class<T> requiredType,  int[] argTypes,Object... args)  throws DataAccessException {
+        getShowSQL(sql,args);
+        if(argTypes!=null){
+            return jdbcTemplate.queryForObject(sql,args,argTypes,rowMapper);
+        }
         if(rowMapper!=null){
-              result= (T)jdbcTemplate.queryForObject(sql, args, rowMapper);
-        }
-        else if(requiredType!=null){
-            result= (T)jdbcTemplate.queryForObject(sql, requiredType,args);
-        }
-        else if(argTypes!=null){
-            result= (T)jdbcTemplate.queryForObject(sql,args,argTypes,rowMapper);
-        } else{
-            result= (T)jdbcTemplate.queryForMap(sql, args);
-        }
-        if(useLocalCache){
-            SqlCacheProvider sqlProvider=new DefaultCacheSqlProvider(sql,args);
-            CacheKey cacheKey =this.getCachekeyBuilder(sqlProvider).createCachekey();
-            Object cacheObject = getCacheInstance().getOject(cacheKey);
-            if (cacheObject != null) {
-                return (T) cacheObject;
-            } else {
-                getShowSQL(sql,args);
-                T object =result;
-                getCacheInstance().putObject(cacheKey, object);
-                return object;
+            return jdbcTemplate.queryForObject(sql, args, rowMapper);
+        }
+        if(requiredType!=null){
+            return jdbcTemplate.queryForObject(sql, requiredType,args);
+        }
+        return (T)jdbcTemplate.queryForMap(sql, args);
+    }
+
+    /**
+     * Key of a statement and the shape of its result, so that the same SQL read as a list,
+     * a single row or through different mappers is never shared. Null when the mapper cannot
+     * be told apart from others of its class, such results are neither cached nor coalesced
+     */
+    private CacheKey createCacheKey(String sql, Object[] args, Class<?> resultType, RowMapper<?> rowMapper, Class<?> requiredType){
+        Object mapping=rowMapper!=null?mapping(rowMapper):requiredType;
+        if(rowMapper!=null&&mapping==null){
+            return null;
+        }
+        CacheKey cacheKey =this.getCachekeyBuilder(new DefaultCacheSqlProvider(sql,args)).createCachekey();
+        cacheKey.update(resultType);
+        cacheKey.update(mapping);
+        return cacheKey;
+    }
+
+    /**
+     * What identifies how a mapper maps rows: the mapper itself when it defines equals, the mapped
+     * class of a bean property mapper, the class of a column map mapper; null for any other
+     */
+    private static Object mapping(RowMapper<?> rowMapper){
+        Class<?> mapperClass=rowMapper.getClass();
+        if(definesEquals(mapperClass)){
+            return rowMapper;
+        }
+        if(mapperClass==BeanPropertyRowMapper.class){
+            return Arrays.asList(mapperClass, ((BeanPropertyRowMapper<?>) rowMapper).getMappedClass());
+        }
+        return mapperClass==ColumnMapRowMapper.class?mapperClass:null;
+    }
+
+    /**
+     * Whether mappers of the class tell by equals which ones map rows identically, as the entity
+     * mappers do by their entity class
+     */
+    private static boolean definesEquals(Class<?> mapperClass){
+        Boolean defined=EQUALS_DEFINED.get(mapperClass);
+        if(defined==null){
+            try{
+                defined=mapperClass.getMethod("equals", Object.class).getDeclaringClass()!=Object.class;
+            }catch(NoSuchMethodException e){
+                defined=false;
             }
-        }else{
-            getShowSQL(sql,args);
-            return result;
+            EQUALS_DEFINED.put(mapperClass, defined);
+        }
+        return defined;
+    }
+
+    /**
+     * Return the cached result of a statement, running it on a miss. Entries due for
+     * refresh-ahead are reloaded in the background while the current value is returned.
+     */
+    private <R> R cached(CacheKey cacheKey, String sql, Supplier<R> query){
+        TransactionalCacheView view=TransactionalCacheView.current(cache);
+        if(view!=null){
+            return cachedInTransaction(view, cacheKey, sql, query);
+        }
+        TableScopedCache.Entry entry=cache.getEntry(cacheKey);
+        if (entry != null) {
+            cache.getStats().recordHit();
+            if(entry.claimRefresh()){
+                CacheRefresher.refresh(entry, () -> load(cache, cacheKey, sql, entry.getExpiry(), query));
+            }
+            return cachedResult(entry.getValue());
+        }
+        cache.getStats().recordMiss();
+        CacheExpiry current=CacheExpiry.current();
+        CacheExpiry expiry=current!=null?current:cacheExpiry;
+        return fromCached(coalesce(cacheKey, () -> load(cache, cacheKey, sql, expiry, query)));
+    }
+
+    /**
+     * Inside a transaction, results are served from and kept in the transaction-local view; the
+     * shared cache is only read for tables the transaction has not written
+     */
+    private <R> R cachedInTransaction(TransactionalCacheView view, CacheKey cacheKey, String sql, Supplier<R> query){
+        Object local=view.get(cacheKey);
+        if(local!=null){
+            cache.getStats().recordHit();
+            return cachedResult(local);
+        }
+        Set<String> tables=SQL_PARSER.getTables(sql);
+        boolean written=view.isWritten(tables);
+        if(!written){
+            TableScopedCache.Entry entry=cache.getEntry(cacheKey);
+            if(entry!=null){
+                cache.getStats().recordHit();
+                return cachedResult(entry.getValue());
+            }
+        }
+        cache.getStats().recordMiss();
+        TableVersions.Snapshot snapshot=view.snapshot(tables);
+        long start=System.nanoTime();
+        R result=query.get();
+        cache.getStats().recordLoad(System.nanoTime()-start);
+        if(result!=null){
+            CacheExpiry current=CacheExpiry.current();
+            view.put(cacheKey, toCached(result), tables, written?null:snapshot, current!=null?current:cacheExpiry);
+        }
+        return result;
+    }
+
+    /**
+     * Run a query and cache its result, the cached value is returned so that every caller
+     * sharing the load can take its own copy of it
+     */
+    private <R> R load(TableScopedCache target, CacheKey cacheKey, String sql, CacheExpiry expiry, Supplier<R> query){
+        TableVersions.Snapshot snapshot=target.snapshot(SQL_PARSER.getTables(sql));
+        long start=System.nanoTime();
+        R loaded=query.get();
+        target.getStats().recordLoad(System.nanoTime()-start);
+        R result=toCached(loaded);
+        if(result!=null){
+            target.putObject(cacheKey, result,snapshot,expiry);
+        }
+        return result;
+    }
+
+    /**
+     * Run a query once for all threads concurrently asking for the same statement. Queries inside
+     * a transaction are never shared, they may see uncommitted changes of their own connection.
+     */
+    private <R> R coalesce(CacheKey cacheKey, Supplier<R> query){
+        if(TransactionSynchronizationManager.isActualTransactionActive()){
+            return query.get();
         }
+        return SINGLE_FLIGHT.execute(Arrays.asList(jdbcTemplate, cacheKey), query);
+    }
 
+    /**
+     * Run an uncached query once for all threads concurrently asking for it when coalescing is
+     * enabled. The shared result is an immutable snapshot and every caller, the one that ran the
+     * query included, gets a deep copy of its own.
+     */
+    @SuppressWarnings("unchecked")
+    private <R> R coalesceUncached(CacheKey cacheKey, Supplier<R> query){
+        if(!coalesceQueries||TransactionSynchronizationManager.isActualTransactionActive()){
+            return query.get();
+        }
+        return (R) ResultSnapshots.copy(coalesce(cacheKey, () -> ResultSnapshots.snapshot(query.get())));
     }
 
     public void clear(){
-        getCacheInstance().clear();
+        cache.clear();
+        if(pageTotalCache!=null){
+            pageTotalCache.clear();
+        }
+        if(entityCache!=null){
+            entityCache.clear();
+        }
+        if(negativeCache!=null){
+            negativeCache.clear();
+        }
+        if(invalidationBus!=null){
+            invalidationBus.publish(InvalidationEvent.all());
+        }
+    }
+
+    /**
+     * Invalidate the cached queries reading the tables written by the given statement
+     */
+    public void invalidate(String sql){
+        invalidateTables(SQL_PARSER.getTables(sql), null, null);
+    }
+
+    private void invalidate(Class<?> entityClass, Collection<?> primaryKeys, String sql){
+        invalidateTables(SQL_PARSER.getTables(sql), entityClass, primaryKeys);
+    }
+
+    private void invalidate(PreparedStatementCreator psc){
+        if(psc instanceof SqlProvider){
+            invalidate(((SqlProvider) psc).getSql());
+        }else{
+            invalidateTables(null, null, null);
+        }
+    }
+
+    /**
+     * Invalidate the local caches and publish the invalidation to the other nodes
+     */
+    private void invalidateTables(Set<String> tables, Class<?> entityClass, Collection<?> primaryKeys){
+        TransactionalCacheView view=TransactionalCacheView.current(cache);
+        if(view!=null){
+            view.write(tables, () -> applyInvalidation(tables, entityClass, primaryKeys));
+        }else{
+            applyInvalidation(tables, entityClass, primaryKeys);
+        }
+    }
+
+    private void applyInvalidation(Set<String> tables, Class<?> entityClass, Collection<?> primaryKeys){
+        invalidationReceiver().invalidate(tables, entityClass, primaryKeys);
+        if(invalidationBus!=null){
+            invalidationBus.publish(entityClass!=null?InvalidationEvent.entities(tables, entityClass, primaryKeys)
+                    :InvalidationEvent.tables(tables));
+        }
+    }
+
+    /**
+     * Receiver applying invalidations published by other nodes to the caches of this builder
+     */
+    public CacheInvalidationReceiver invalidationReceiver(){
+        return new CacheInvalidationReceiver(cache, entityCache, negativeCache);
+    }
+
+    private static boolean isSelect(String sql){
+        String statement=sql.trim();
+        return statement.length()>=6&&statement.substring(0,6).equalsIgnoreCase("SELECT");
     }
 
     private void getShowSQL(String sql, Object[] parameters){
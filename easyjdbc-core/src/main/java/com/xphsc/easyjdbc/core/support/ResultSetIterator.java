@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.support;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Rows of a query mapped lazily as they are pulled, over a forward-only, read-only cursor that
+ * fetches {@code fetchSize} rows at a time, so that memory stays flat however many rows come back.
+ * The connection is held until the rows are exhausted or the iterator is closed, callers that may
+ * stop early must close it, typically in try-with-resources. Inside a transaction the transaction's
+ * connection is used and left open.
+ * <p>Drivers differ in what makes them stream: MySQL Connector/J needs a fetch size of
+ * {@link Integer#MIN_VALUE}, PostgreSQL streams only with auto-commit off.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class ResultSetIterator<T> implements Iterator<T>, Closeable {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sql;
+    private final RowMapper<T> rowMapper;
+    private final DataSource dataSource;
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private int rowNum;
+    private boolean fetched;
+    private boolean closed;
+
+    ResultSetIterator(JdbcTemplate jdbcTemplate, String sql, Object[] args, RowMapper<T> rowMapper, int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sql = sql;
+        this.rowMapper = rowMapper;
+        this.dataSource = jdbcTemplate.getDataSource();
+        this.connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            this.statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            this.statement.setFetchSize(fetchSize);
+            if (jdbcTemplate.getQueryTimeout() > 0) {
+                this.statement.setQueryTimeout(jdbcTemplate.getQueryTimeout());
+            }
+            new ArgumentPreparedStatementSetter(args).setValues(this.statement);
+            this.resultSet = this.statement.executeQuery();
+        } catch (SQLException e) {
+            close();
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (!fetched) {
+            try {
+                fetched = resultSet.next();
+            } catch (SQLException e) {
+                close();
+                throw translate(e);
+            }
+            if (!fetched) {
+                close();
+            }
+        }
+        return fetched;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        fetched = false;
+        try {
+            return rowMapper.mapRow(resultSet, rowNum++);
+        } catch (SQLException e) {
+            close();
+            throw translate(e);
+        }
+    }
+
+    /**
+     * The rows as a sequential stream, closing the cursor when the stream is closed
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Release the result set, the statement and the connection, idempotent
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        JdbcUtils.closeResultSet(resultSet);
+        JdbcUtils.closeStatement(statement);
+        DataSourceUtils.releaseConnection(connection, dataSource);
+        resultSet = null;
+        statement = null;
+        connection = null;
+    }
+
+    private DataAccessException translate(SQLException e) {
+        return jdbcTemplate.getExceptionTranslator().translate("ResultSetIterator", sql, e);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.support;
+
+/**
+ * Callback receiving the mapped rows of a query one at a time, so that rows can be folded over
+ * without the result being collected into a list
+ * @author huipei.x
+ * @since 2.1.0
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+
+    /**
+     * Handle one mapped row. With instance reuse on, the row is the same instance on every call
+     * and must not be kept past the call
+     */
+    void handle(T row);
+}
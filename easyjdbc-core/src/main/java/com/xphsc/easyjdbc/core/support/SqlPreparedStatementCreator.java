@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.support;
+
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.SqlProvider;
+
+/**
+ * PreparedStatementCreator exposing its statement, so that writes through
+ * {@link JdbcBuilder#update(PreparedStatementCreator, org.springframework.jdbc.support.KeyHolder)}
+ * only invalidate the cached queries of the tables they touch.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public abstract class SqlPreparedStatementCreator implements PreparedStatementCreator, SqlProvider {
+
+    private final String sql;
+
+    protected SqlPreparedStatementCreator(String sql) {
+        this.sql = sql;
+    }
+
+    @Override
+    public String getSql() {
+        return sql;
+    }
+}
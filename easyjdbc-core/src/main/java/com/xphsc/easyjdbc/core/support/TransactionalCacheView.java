@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.support;
+
+import com.xphsc.easyjdbc.core.cache.CacheExpiry;
+import com.xphsc.easyjdbc.core.cache.TableScopedCache;
+import com.xphsc.easyjdbc.core.cache.TableVersions;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transaction-local view of a query cache, bound to the current Spring transaction.
+ * <p>Results read inside the transaction are kept in the view and only offered to the shared
+ * cache after commit, unless they read tables the transaction wrote. Invalidations of writes
+ * made inside the transaction are deferred to {@code afterCommit}, so other threads never see
+ * uncommitted data in the cache; on rollback everything is discarded.
+ * @author huipei.x
+ * @since 2.1.0
+ */
+class TransactionalCacheView extends TransactionSynchronizationAdapter {
+
+    private final TableScopedCache cache;
+    /** Table versions when the transaction first used the cache, before its first cached read */
+    private final TableVersions.Snapshot start;
+    private final Map<Object, Local> locals = new HashMap<Object, Local>();
+    private final List<Local> puts = new ArrayList<Local>();
+    private final List<Runnable> invalidations = new ArrayList<Runnable>();
+    private final Set<String> writtenTables = new HashSet<String>();
+    private boolean writtenAll;
+
+    private TransactionalCacheView(TableScopedCache cache) {
+        this.cache = cache;
+        this.start = cache.snapshot(null);
+    }
+
+    /**
+     * The view of the given cache for the current transaction, null outside of a transaction.
+     */
+    static TransactionalCacheView current(TableScopedCache cache) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        TransactionalCacheView view = (TransactionalCacheView) TransactionSynchronizationManager.getResource(cache);
+        if (view == null) {
+            view = new TransactionalCacheView(cache);
+            TransactionSynchronizationManager.bindResource(cache, view);
+            TransactionSynchronizationManager.registerSynchronization(view);
+        }
+        return view;
+    }
+
+    /**
+     * Versions of the given tables for a result read by the transaction, taken as of its first
+     * use of the cache: under repeatable read its reads may not see commits made since, so tables
+     * written in between must not be published with current versions.
+     */
+    TableVersions.Snapshot snapshot(Set<String> tables) {
+        return cache.getTableVersions().snapshot(tables, start);
+    }
+
+    Object get(Object key) {
+        Local local = locals.get(key);
+        return local != null ? local.value : null;
+    }
+
+    /**
+     * Whether the transaction wrote any of the given tables, in which case the shared cache does
+     * not reflect what the transaction sees.
+     */
+    boolean isWritten(Set<String> tables) {
+        if (writtenAll || (tables.isEmpty() && !writtenTables.isEmpty())) {
+            return true;
+        }
+        for (String table : tables) {
+            if (writtenTables.contains(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keep a result read by the transaction, to be offered to the shared cache after commit
+     * when a snapshot is given.
+     */
+    void put(Object key, Object value, Set<String> tables, TableVersions.Snapshot snapshot, CacheExpiry expiry) {
+        Local local = new Local(key, value, tables, snapshot, expiry);
+        locals.put(key, local);
+        if (snapshot != null) {
+            puts.add(local);
+        }
+    }
+
+    /**
+     * Record a write of the transaction, the invalidation runs after commit.
+     */
+    void write(Set<String> tables, Runnable invalidation) {
+        if (tables == null || tables.isEmpty()) {
+            writtenAll = true;
+            locals.clear();
+        } else {
+            writtenTables.addAll(tables);
+            for (Iterator<Local> it = locals.values().iterator(); it.hasNext(); ) {
+                Local local = it.next();
+                if (local.tables.isEmpty() || !Collections.disjoint(local.tables, tables)) {
+                    it.remove();
+                }
+            }
+        }
+        invalidations.add(invalidation);
+    }
+
+    @Override
+    public void afterCommit() {
+        for (Runnable invalidation : invalidations) {
+            invalidation.run();
+        }
+        for (Local local : puts) {
+            cache.putObject(local.key, local.value, local.snapshot, local.expiry);
+        }
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(cache);
+    }
+
+    private static final class Local {
+        private final Object key;
+        private final Object value;
+        private final Set<String> tables;
+        private final TableVersions.Snapshot snapshot;
+        private final CacheExpiry expiry;
+
+        private Local(Object key, Object value, Set<String> tables, TableVersions.Snapshot snapshot, CacheExpiry expiry) {
+            this.key = key;
+            this.value = value;
+            this.tables = tables;
+            this.snapshot = snapshot;
+            this.expiry = expiry;
+        }
+    }
+}
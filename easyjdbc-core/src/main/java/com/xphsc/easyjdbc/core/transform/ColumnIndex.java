@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform;
+
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column names of a Map-based result, shared by all of its {@link CompactRow rows}. Names are
+ * looked up case-insensitively, like the keys of a {@code LinkedCaseInsensitiveMap}
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class ColumnIndex implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String[] columns;
+	private final Map<String, Integer> slots;
+
+	/**
+	 * @param columns distinct column names, in the order of the row values
+	 */
+	public ColumnIndex(String... columns) {
+		this.columns = columns.clone();
+		this.slots = new HashMap<String, Integer>(columns.length * 4 / 3 + 1);
+		for (int i = 0; i < columns.length; i++) {
+			if (null != this.slots.put(convertKey(columns[i]), i)) {
+				throw new IllegalArgumentException("Duplicate column " + columns[i]);
+			}
+		}
+	}
+
+	public int size() {
+		return this.columns.length;
+	}
+
+	public String getColumn(int slot) {
+		return this.columns[slot];
+	}
+
+	/**
+	 * Slot of the column, -1 when the key is not a column of the result
+	 */
+	public int indexOf(Object key) {
+		if (!(key instanceof String)) {
+			return -1;
+		}
+		Integer slot = this.slots.get(convertKey((String) key));
+		return null != slot ? slot : -1;
+	}
+
+	private static String convertKey(String key) {
+		return key.toLowerCase(Locale.getDefault());
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform;
+
+
+import com.xphsc.easyjdbc.util.StringUtil;
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columns of a result set bound to the fields they map to, resolved from the metadata on the
+ * first row and reused for every following row of the same result set
+ * @author huipei.x
+ * @since 2.1.0
+ */
+final class ColumnPlan<F> {
+
+	private final WeakReference<ResultSet> resultSet;
+	private final int[] columnIndexes;
+	private final int[] columnTypes;
+	private final Object[] fields;
+
+	private ColumnPlan(ResultSet resultSet, int[] columnIndexes, int[] columnTypes, Object[] fields) {
+		this.resultSet = new WeakReference<ResultSet>(resultSet);
+		this.columnIndexes = columnIndexes;
+		this.columnTypes = columnTypes;
+		this.fields = fields;
+	}
+
+	/**
+	 * Bind the columns of the result set to the fields keyed by upper-cased column name,
+	 * columns without a field are skipped
+	 */
+	static <F> ColumnPlan<F> of(ResultSet rs, Map<String, F> fieldsByColumn) throws SQLException {
+		ResultSetMetaData rsm = rs.getMetaData();
+		int col = rsm.getColumnCount();
+		List<Integer> indexes = new ArrayList<Integer>(col);
+		List<F> fields = new ArrayList<F>(col);
+		for (int i = 1; i <= col; i++) {
+			String columnLabel = StringUtil.toUnderScoreCase(rsm.getColumnLabel(i));
+			F field = fieldsByColumn.get(columnLabel.toUpperCase());
+			if (null != field) {
+				indexes.add(i);
+				fields.add(field);
+			}
+		}
+		int size = fields.size();
+		int[] columnIndexes = new int[size];
+		int[] columnTypes = new int[size];
+		for (int i = 0; i < size; i++) {
+			columnIndexes[i] = indexes.get(i);
+			columnTypes[i] = rsm.getColumnType(columnIndexes[i]);
+		}
+		return new ColumnPlan<F>(rs, columnIndexes, columnTypes, fields.toArray());
+	}
+
+	boolean isFor(ResultSet rs) {
+		return this.resultSet.get() == rs;
+	}
+
+	int size() {
+		return this.fields.length;
+	}
+
+	int getColumnIndex(int i) {
+		return this.columnIndexes[i];
+	}
+
+	int getColumnType(int i) {
+		return this.columnTypes[i];
+	}
+
+	@SuppressWarnings("unchecked")
+	F getField(int i) {
+		return (F) this.fields[i];
+	}
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform;
+
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Result of an analytic query held column by column in primitive arrays instead of one boxed object
+ * per cell: integer columns in {@code int[]} or {@code long[]}, floating point columns in
+ * {@code double[]}, character columns as {@code int[]} codes into a dictionary of their distinct
+ * strings, and any other column, fractional decimals and unsigned BIGINT among them, as plain objects. Nulls are kept in a bitmap per column.
+ * The arrays are exposed as they are for tight loops and must not be modified
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class ColumnarResult {
+
+	private final String[] names;
+	private final Column[] columns;
+	private final int size;
+
+	ColumnarResult(String[] names, Column[] columns, int size) {
+		this.names = names;
+		this.columns = columns;
+		this.size = size;
+	}
+
+	/**
+	 * Number of rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	public String getColumnName(int column) {
+		return names[column];
+	}
+
+	public Column getColumn(int column) {
+		return columns[column];
+	}
+
+	/**
+	 * The column of the label, ignoring case
+	 */
+	public Column getColumn(String label) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equalsIgnoreCase(label)) {
+				return columns[i];
+			}
+		}
+		throw new IllegalArgumentException("No column " + label + " in " + Arrays.toString(names));
+	}
+
+	/**
+	 * Storage of a column
+	 */
+	public enum Kind {
+		INT, LONG, DOUBLE, STRING, OBJECT
+	}
+
+	/**
+	 * Values of one column, growing while the result set is read and trimmed to the row count at the end
+	 */
+	public static final class Column {
+
+		private static final int INITIAL_CAPACITY = 1024;
+
+		private final Kind kind;
+		private int[] ints;
+		private long[] longs;
+		private double[] doubles;
+		private Object[] objects;
+		private Map<String, Integer> codesByString;
+		private String[] dictionary;
+		private long[] nulls;
+		private int nullCount;
+
+		Column(Kind kind) {
+			this.kind = kind;
+			this.nulls = new long[INITIAL_CAPACITY >> 6];
+			switch (kind) {
+				case INT:
+					ints = new int[INITIAL_CAPACITY];
+					break;
+				case LONG:
+					longs = new long[INITIAL_CAPACITY];
+					break;
+				case DOUBLE:
+					doubles = new double[INITIAL_CAPACITY];
+					break;
+				case STRING:
+					ints = new int[INITIAL_CAPACITY];
+					codesByString = new HashMap<String, Integer>();
+					dictionary = new String[16];
+					break;
+				default:
+					objects = new Object[INITIAL_CAPACITY];
+			}
+		}
+
+		/**
+		 * Storage of a column of the JDBC type. Unsigned INTEGER columns widen to long and unsigned
+		 * BIGINT columns stay BigInteger objects, DECIMAL and NUMERIC columns are stored as long only
+		 * when they have no fractional digits and fit in one, and stay BigDecimal objects otherwise
+		 */
+		static Kind kindOf(int jdbcType, boolean signed, int precision, int scale) {
+			switch (jdbcType) {
+				case Types.TINYINT:
+				case Types.SMALLINT:
+				case Types.BIT:
+				case Types.BOOLEAN:
+					return Kind.INT;
+				case Types.INTEGER:
+					return signed ? Kind.INT : Kind.LONG;
+				case Types.BIGINT:
+					return signed ? Kind.LONG : Kind.OBJECT;
+				case Types.REAL:
+				case Types.FLOAT:
+				case Types.DOUBLE:
+					return Kind.DOUBLE;
+				case Types.NUMERIC:
+				case Types.DECIMAL:
+					return scale == 0 && precision > 0 && precision <= 18 ? Kind.LONG : Kind.OBJECT;
+				case Types.CHAR:
+				case Types.VARCHAR:
+				case Types.LONGVARCHAR:
+				case Types.NCHAR:
+				case Types.NVARCHAR:
+				case Types.LONGNVARCHAR:
+					return Kind.STRING;
+				default:
+					return Kind.OBJECT;
+			}
+		}
+
+		/**
+		 * Read the column of the current row of the result set into the row
+		 */
+		void read(ResultSet rs, int columnIndex, int jdbcType, int row) throws SQLException {
+			ensureCapacity(row);
+			switch (kind) {
+				case INT:
+					ints[row] = jdbcType == Types.BIT || jdbcType == Types.BOOLEAN ? (rs.getBoolean(columnIndex) ? 1 : 0) : rs.getInt(columnIndex);
+					break;
+				case LONG:
+					longs[row] = rs.getLong(columnIndex);
+					break;
+				case DOUBLE:
+					doubles[row] = rs.getDouble(columnIndex);
+					break;
+				case STRING:
+					ints[row] = encode(rs.getString(columnIndex));
+					break;
+				default:
+					objects[row] = rs.getObject(columnIndex);
+			}
+			if (rs.wasNull()) {
+				nulls[row >>> 6] |= 1L << row;
+				nullCount++;
+			}
+		}
+
+		private int encode(String value) {
+			if (value == null) {
+				return -1;
+			}
+			Integer code = codesByString.get(value);
+			if (code == null) {
+				code = codesByString.size();
+				codesByString.put(value, code);
+				if (code == dictionary.length) {
+					dictionary = Arrays.copyOf(dictionary, code << 1);
+				}
+				dictionary[code] = value;
+			}
+			return code;
+		}
+
+		private void ensureCapacity(int row) {
+			int capacity = nulls.length << 6;
+			if (row < capacity) {
+				return;
+			}
+			int grown = capacity << 1;
+			nulls = Arrays.copyOf(nulls, grown >> 6);
+			if (ints != null) {
+				ints = Arrays.copyOf(ints, grown);
+			} else if (longs != null) {
+				longs = Arrays.copyOf(longs, grown);
+			} else if (doubles != null) {
+				doubles = Arrays.copyOf(doubles, grown);
+			} else {
+				objects = Arrays.copyOf(objects, grown);
+			}
+		}
+
+		/**
+		 * Trim the arrays to the number of rows read and drop the encoding index
+		 */
+		void trim(int size) {
+			nulls = Arrays.copyOf(nulls, (size + 63) >> 6);
+			if (ints != null) {
+				ints = Arrays.copyOf(ints, size);
+			} else if (longs != null) {
+				longs = Arrays.copyOf(longs, size);
+			} else if (doubles != null) {
+				doubles = Arrays.copyOf(doubles, size);
+			} else {
+				objects = Arrays.copyOf(objects, size);
+			}
+			if (codesByString != null) {
+				dictionary = Arrays.copyOf(dictionary, codesByString.size());
+				codesByString = null;
+			}
+		}
+
+		public Kind getKind() {
+			return kind;
+		}
+
+		public boolean isNull(int row) {
+			return (nulls[row >>> 6] & (1L << row)) != 0;
+		}
+
+		public int getNullCount() {
+			return nullCount;
+		}
+
+		public int getInt(int row) {
+			switch (kind) {
+				case INT:
+					return ints[row];
+				case LONG:
+					return (int) longs[row];
+				case DOUBLE:
+					return (int) doubles[row];
+				default:
+					if (objects != null && objects[row] instanceof Number) {
+						return ((Number) objects[row]).intValue();
+					}
+					throw notNumeric();
+			}
+		}
+
+		public long getLong(int row) {
+			switch (kind) {
+				case INT:
+					return ints[row];
+				case LONG:
+					return longs[row];
+				case DOUBLE:
+					return (long) doubles[row];
+				default:
+					if (objects != null && objects[row] instanceof Number) {
+						return ((Number) objects[row]).longValue();
+					}
+					throw notNumeric();
+			}
+		}
+
+		public double getDouble(int row) {
+			switch (kind) {
+				case INT:
+					return ints[row];
+				case LONG:
+					return longs[row];
+				case DOUBLE:
+					return doubles[row];
+				default:
+					if (objects != null && objects[row] instanceof Number) {
+						return ((Number) objects[row]).doubleValue();
+					}
+					throw notNumeric();
+			}
+		}
+
+		public String getString(int row) {
+			if (kind == Kind.STRING) {
+				int code = ints[row];
+				return code < 0 ? null : dictionary[code];
+			}
+			Object value = getObject(row);
+			return value == null ? null : value.toString();
+		}
+
+		/**
+		 * The value of the row boxed, null for null cells
+		 */
+		public Object getObject(int row) {
+			if (isNull(row)) {
+				return null;
+			}
+			switch (kind) {
+				case INT:
+					return ints[row];
+				case LONG:
+					return longs[row];
+				case DOUBLE:
+					return doubles[row];
+				case STRING:
+					return dictionary[ints[row]];
+				default:
+					return objects[row];
+			}
+		}
+
+		/**
+		 * Values of an INT column, 0 in null rows
+		 */
+		public int[] getInts() {
+			return kind == Kind.INT ? ints : null;
+		}
+
+		/**
+		 * Values of a LONG column, 0 in null rows
+		 */
+		public long[] getLongs() {
+			return longs;
+		}
+
+		/**
+		 * Values of a DOUBLE column, 0 in null rows
+		 */
+		public double[] getDoubles() {
+			return doubles;
+		}
+
+		/**
+		 * Dictionary codes of a STRING column, -1 in null rows
+		 */
+		public int[] getCodes() {
+			return kind == Kind.STRING ? ints : null;
+		}
+
+		/**
+		 * Distinct strings of a STRING column, indexed by code
+		 */
+		public String[] getDictionary() {
+			return dictionary;
+		}
+
+		private IllegalStateException notNumeric() {
+			return new IllegalStateException("Column of kind " + kind + " is not numeric");
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform;
+
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.JdbcUtils;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Reads all the columns of a result set into a {@link ColumnarResult}, the storage of each column
+ * chosen once from the result set metadata
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class ColumnarResultSetExtractor implements ResultSetExtractor<ColumnarResult> {
+
+	@Override
+	public ColumnarResult extractData(ResultSet rs) throws SQLException {
+		ResultSetMetaData rsm = rs.getMetaData();
+		int count = rsm.getColumnCount();
+		String[] names = new String[count];
+		int[] jdbcTypes = new int[count];
+		ColumnarResult.Column[] columns = new ColumnarResult.Column[count];
+		for (int i = 0; i < count; i++) {
+			names[i] = JdbcUtils.lookupColumnName(rsm, i + 1);
+			jdbcTypes[i] = rsm.getColumnType(i + 1);
+			columns[i] = new ColumnarResult.Column(ColumnarResult.Column.kindOf(jdbcTypes[i], rsm.isSigned(i + 1), rsm.getPrecision(i + 1), rsm.getScale(i + 1)));
+		}
+		int row = 0;
+		while (rs.next()) {
+			for (int i = 0; i < count; i++) {
+				columns[i].read(rs, i + 1, jdbcTypes[i], row);
+			}
+			row++;
+		}
+		for (ColumnarResult.Column column : columns) {
+			column.trim(row);
+		}
+		return new ColumnarResult(names, columns, row);
+	}
+}
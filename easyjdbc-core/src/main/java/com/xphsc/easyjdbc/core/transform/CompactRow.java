@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform;
+
+
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Row of a Map-based result holding its values in an array, the column names being kept once in
+ * the {@link ColumnIndex} shared by all rows of the result. Keys are case-insensitive. Replacing the
+ * value of a column is done in place; adding or removing a column detaches the row into a
+ * {@link LinkedCaseInsensitiveMap} of its own
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class CompactRow extends AbstractMap<String, Object> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ColumnIndex columnIndex;
+	private final Object[] values;
+	private LinkedCaseInsensitiveMap<Object> detached;
+
+	/**
+	 * @param values the values of the row, in the order of the index; the array is not copied
+	 */
+	public CompactRow(ColumnIndex columnIndex, Object[] values) {
+		if (values.length != columnIndex.size()) {
+			throw new IllegalArgumentException("Expected " + columnIndex.size() + " values but got " + values.length);
+		}
+		this.columnIndex = columnIndex;
+		this.values = values;
+	}
+
+	public ColumnIndex getColumnIndex() {
+		return this.columnIndex;
+	}
+
+	/**
+	 * Whether the row still holds exactly the columns of its index
+	 */
+	public boolean isCompact() {
+		return null == this.detached;
+	}
+
+	/**
+	 * Copy of the row sharing the same index, every value passed through the given function
+	 */
+	public Map<String, Object> copy(Function<Object, Object> valueCopier) {
+		if (null != this.detached) {
+			LinkedCaseInsensitiveMap<Object> copy = new LinkedCaseInsensitiveMap<Object>(this.detached.size());
+			for (Map.Entry<String, Object> entry : this.detached.entrySet()) {
+				copy.put(entry.getKey(), valueCopier.apply(entry.getValue()));
+			}
+			return copy;
+		}
+		Object[] copy = new Object[this.values.length];
+		for (int i = 0; i < copy.length; i++) {
+			copy[i] = valueCopier.apply(this.values[i]);
+		}
+		return new CompactRow(this.columnIndex, copy);
+	}
+
+	@Override
+	public int size() {
+		return null != this.detached ? this.detached.size() : this.values.length;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return null != this.detached ? this.detached.containsKey(key) : this.columnIndex.indexOf(key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (null != this.detached) {
+			return this.detached.get(key);
+		}
+		int slot = this.columnIndex.indexOf(key);
+		return slot >= 0 ? this.values[slot] : null;
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		if (null == this.detached) {
+			int slot = this.columnIndex.indexOf(key);
+			if (slot >= 0) {
+				Object previous = this.values[slot];
+				this.values[slot] = value;
+				return previous;
+			}
+		}
+		return detach().put(key, value);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if (null == this.detached && this.columnIndex.indexOf(key) < 0) {
+			return null;
+		}
+		return detach().remove(key);
+	}
+
+	@Override
+	public void clear() {
+		detach().clear();
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return null != this.detached ? this.detached.entrySet() : new EntrySet();
+	}
+
+	private LinkedCaseInsensitiveMap<Object> detach() {
+		if (null == this.detached) {
+			LinkedCaseInsensitiveMap<Object> detached = new LinkedCaseInsensitiveMap<Object>(this.values.length);
+			for (int i = 0; i < this.values.length; i++) {
+				detached.put(this.columnIndex.getColumn(i), this.values[i]);
+				this.values[i] = null;
+			}
+			this.detached = detached;
+		}
+		return this.detached;
+	}
+
+	private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+		@Override
+		public int size() {
+			return CompactRow.this.size();
+		}
+
+		@Override
+		public Iterator<Map.Entry<String, Object>> iterator() {
+			return new EntryIterator();
+		}
+	}
+
+	/**
+	 * Iterates the slots of the compact row. Removing through the iterator detaches the row and goes
+	 * on over the detached map from the same position; any other change that detaches the row fails
+	 * the iteration
+	 */
+	private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+		private int slot;
+		private boolean removable;
+		private Iterator<Map.Entry<String, Object>> delegate;
+
+		@Override
+		public boolean hasNext() {
+			return null != this.delegate ? this.delegate.hasNext() : this.slot < values.length;
+		}
+
+		@Override
+		public Map.Entry<String, Object> next() {
+			if (null != this.delegate) {
+				return this.delegate.next();
+			}
+			if (null != detached) {
+				throw new ConcurrentModificationException();
+			}
+			if (this.slot >= values.length) {
+				throw new NoSuchElementException();
+			}
+			this.removable = true;
+			return new Entry(this.slot++);
+		}
+
+		@Override
+		public void remove() {
+			if (null != this.delegate) {
+				this.delegate.remove();
+				return;
+			}
+			if (!this.removable) {
+				throw new IllegalStateException();
+			}
+			if (null != detached) {
+				throw new ConcurrentModificationException();
+			}
+			this.removable = false;
+			Iterator<Map.Entry<String, Object>> delegate = detach().entrySet().iterator();
+			for (int i = 0; i < this.slot; i++) {
+				delegate.next();
+			}
+			delegate.remove();
+			this.delegate = delegate;
+		}
+	}
+
+	private final class Entry implements Map.Entry<String, Object> {
+		private final int slot;
+
+		private Entry(int slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		public String getKey() {
+			return columnIndex.getColumn(this.slot);
+		}
+
+		@Override
+		public Object getValue() {
+			return null != detached ? detached.get(getKey()) : values[this.slot];
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			if (null != detached) {
+				return put(getKey(), value);
+			}
+			Object previous = values[this.slot];
+			values[this.slot] = value;
+			return previous;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+			return getKey().equals(entry.getKey())
+					&& (null == getValue() ? null == entry.getValue() : getValue().equals(entry.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			return getKey().hashCode() ^ (null == getValue() ? 0 : getValue().hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+}
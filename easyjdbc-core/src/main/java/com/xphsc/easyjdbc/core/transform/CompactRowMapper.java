@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform;
+
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps each row to a {@link CompactRow}, the column index being built once per result set from
+ * its metadata. Values are read like {@code ColumnMapRowMapper} does; of repeated column labels
+ * the last value wins
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class CompactRowMapper implements RowMapper<Map<String, Object>> {
+
+	private volatile Layout layout;
+
+	@Override
+	public Map<String, Object> mapRow(ResultSet rs, int rowNum) throws SQLException {
+		Layout layout = layout(rs);
+		Object[] values = new Object[layout.columnIndex.size()];
+		for (int i = 0; i < layout.slots.length; i++) {
+			values[layout.slots[i]] = JdbcUtils.getResultSetValue(rs, i + 1);
+		}
+		return new CompactRow(layout.columnIndex, values);
+	}
+
+	private Layout layout(ResultSet rs) throws SQLException {
+		Layout layout = this.layout;
+		if (layout == null || layout.resultSet.get() != rs) {
+			ResultSetMetaData rsm = rs.getMetaData();
+			int[] slots = new int[rsm.getColumnCount()];
+			List<String> columns = new ArrayList<String>(slots.length);
+			Map<String, Integer> seen = new LinkedCaseInsensitiveMap<Integer>(slots.length);
+			for (int i = 0; i < slots.length; i++) {
+				String column = JdbcUtils.lookupColumnName(rsm, i + 1);
+				Integer slot = seen.get(column);
+				if (null == slot) {
+					slot = columns.size();
+					seen.put(column, slot);
+					columns.add(column);
+				}
+				slots[i] = slot;
+			}
+			layout = new Layout(rs, new ColumnIndex(columns.toArray(new String[columns.size()])), slots);
+			this.layout = layout;
+		}
+		return layout;
+	}
+
+	/**
+	 * All compact row mappers map rows alike, whatever the result set they last read
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return null != obj && obj.getClass() == getClass();
+	}
+
+	@Override
+	public int hashCode() {
+		return getClass().hashCode();
+	}
+
+	private static final class Layout {
+		private final WeakReference<ResultSet> resultSet;
+		private final ColumnIndex columnIndex;
+		private final int[] slots;
+
+		private Layout(ResultSet resultSet, ColumnIndex columnIndex, int[] slots) {
+			this.resultSet = new WeakReference<ResultSet>(resultSet);
+			this.columnIndex = columnIndex;
+			this.slots = slots;
+		}
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform;
+
+
+import com.xphsc.easyjdbc.core.exception.EasyJdbcException;
+import com.xphsc.easyjdbc.core.metadata.EntityElement;
+import com.xphsc.easyjdbc.core.metadata.FieldElement;
+import com.xphsc.easyjdbc.core.metadata.PropertyAccessors;
+import com.xphsc.easyjdbc.core.metadata.resultset.ColumnReader;
+import com.xphsc.easyjdbc.util.Jdbcs;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.lob.LobHandler;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Entity row mapper compiled per result set: every mapped column is bound once, on the first row,
+ * to an assigner calling the typed getter of its column and the setter of its field, so mapping a
+ * row is a straight run of those calls. Int, long and double properties are read and set unboxed.
+ * Used instead of {@link EntityRowMapper} when compiled mapping is enabled
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class CompiledEntityRowMapper<T> implements ReusableRowMapper<T> {
+
+	/**
+	 * Assigner factories of the fields, spun once per field and shared by all mappers
+	 */
+
+	private final LobHandler lobHandler;
+	private final EntityElement entityElement;
+	private final Class<?> persistentClass;
+	private volatile Compiled compiled;
+
+	public CompiledEntityRowMapper(LobHandler lobHandler, EntityElement entityElement, Class<?> persistentClass) {
+		this.persistentClass = persistentClass;
+		this.entityElement = entityElement;
+		this.lobHandler = lobHandler;
+	}
+
+	@Override
+	public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+		T instance = Jdbcs.newInstance(this.persistentClass);
+		for (ColumnAssigner assigner : compile(rs).assigners) {
+			assigner.assign(rs, instance);
+		}
+		return instance;
+	}
+
+	/**
+	 * Reused instances are filled by the plain assignment of {@link EntityRowMapper}, which also
+	 * clears the fields of null columns
+	 */
+	@Override
+	public RowMapper<T> reusing() {
+		T instance = Jdbcs.newInstance(this.persistentClass);
+		return (rs, rowNum) -> {
+			EntityRowMapper.assign(this.lobHandler, this.entityElement, compile(rs).plan, rs, instance, true);
+			return instance;
+		};
+	}
+
+	private Compiled compile(ResultSet rs) throws SQLException {
+		Compiled compiled = this.compiled;
+		if (compiled == null || !compiled.plan.isFor(rs)) {
+			ColumnPlan<FieldElement> plan = ColumnPlan.of(rs, this.entityElement.getFieldElements());
+			ColumnAssigner[] assigners = new ColumnAssigner[plan.size()];
+			for (int i = 0; i < plan.size(); i++) {
+				assigners[i] = factory(plan.getField(i)).create(this.lobHandler, plan.getColumnIndex(i), plan.getColumnType(i));
+			}
+			compiled = new Compiled(plan, assigners);
+			this.compiled = compiled;
+		}
+		return compiled;
+	}
+
+	/**
+	 * The factory is kept on the field element, so it goes away with the element when entities
+	 * are resolved again
+	 */
+	private AssignerFactory factory(FieldElement fieldElement) {
+		Object factory = fieldElement.getAssignerFactory();
+		if (!(factory instanceof AssignerFactory)) {
+			factory = newFactory(fieldElement);
+			fieldElement.setAssignerFactory(factory);
+		}
+		return (AssignerFactory) factory;
+	}
+
+	private AssignerFactory newFactory(FieldElement fieldElement) {
+		if (null == fieldElement.getSetter()) {
+			String entityName = this.entityElement.getName();
+			ColumnReader reader = fieldElement.getColumnReader();
+			return (lobHandler, columnIndex, jdbcType) -> (rs, target) -> {
+				if (null != reader.read(rs, columnIndex, jdbcType)) {
+					throw new EasyJdbcException("实体："+entityName+" 字段："+fieldElement.getName()+" 没有set方法");
+				}
+			};
+		}
+		if (fieldElement.isClob()) {
+			return (lobHandler, columnIndex, jdbcType) -> (rs, target) -> {
+				String value = lobHandler.getClobAsString(rs, columnIndex);
+				if (null != value) {
+					fieldElement.setValue(target, value);
+				}
+			};
+		}
+		if (fieldElement.isBlob()) {
+			return (lobHandler, columnIndex, jdbcType) -> (rs, target) -> {
+				byte[] value = lobHandler.getBlobAsBytes(rs, columnIndex);
+				if (null != value) {
+					fieldElement.setValue(target, value);
+				}
+			};
+		}
+		ObjIntConsumer<Object> intSetter = PropertyAccessors.intSetter(fieldElement.getWriteMethod());
+		if (intSetter != null) {
+			return (lobHandler, columnIndex, jdbcType) -> (rs, target) -> intSetter.accept(target, rs.getInt(columnIndex));
+		}
+		ObjLongConsumer<Object> longSetter = PropertyAccessors.longSetter(fieldElement.getWriteMethod());
+		if (longSetter != null) {
+			return (lobHandler, columnIndex, jdbcType) -> (rs, target) -> longSetter.accept(target, rs.getLong(columnIndex));
+		}
+		ObjDoubleConsumer<Object> doubleSetter = PropertyAccessors.doubleSetter(fieldElement.getWriteMethod());
+		if (doubleSetter != null) {
+			return (lobHandler, columnIndex, jdbcType) -> (rs, target) -> doubleSetter.accept(target, rs.getDouble(columnIndex));
+		}
+		ColumnReader reader = fieldElement.getColumnReader();
+		return (lobHandler, columnIndex, jdbcType) -> (rs, target) -> {
+			Object value = reader.read(rs, columnIndex, jdbcType);
+			if (null != value) {
+				fieldElement.setValue(target, value);
+			}
+		};
+	}
+
+	/**
+	 * Mappers of the same class map rows identically, which lets their results be shared
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || obj.getClass() != getClass()) {
+			return false;
+		}
+		return this.persistentClass.equals(((CompiledEntityRowMapper<?>) obj).persistentClass);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.persistentClass.hashCode();
+	}
+
+	@FunctionalInterface
+	private interface ColumnAssigner {
+		void assign(ResultSet rs, Object target) throws SQLException;
+	}
+
+	@FunctionalInterface
+	private interface AssignerFactory {
+		ColumnAssigner create(LobHandler lobHandler, int columnIndex, int jdbcType);
+	}
+
+	private static final class Compiled {
+		private final ColumnPlan<FieldElement> plan;
+		private final ColumnAssigner[] assigners;
+
+		private Compiled(ColumnPlan<FieldElement> plan, ColumnAssigner[] assigners) {
+			this.plan = plan;
+			this.assigners = assigners;
+		}
+	}
+}
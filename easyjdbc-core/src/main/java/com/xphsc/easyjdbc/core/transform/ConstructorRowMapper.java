@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform;
+
+
+import com.xphsc.easyjdbc.core.metadata.DynamicEntityElement;
+import com.xphsc.easyjdbc.core.metadata.DynamicFieldElement;
+import com.xphsc.easyjdbc.core.metadata.EntityCreator;
+import com.xphsc.easyjdbc.core.metadata.EntityElement;
+import com.xphsc.easyjdbc.core.metadata.FieldElement;
+import com.xphsc.easyjdbc.core.metadata.resultset.ColumnReader;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.lob.LobHandler;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps rows onto the canonical constructor of immutable entities: the columns of a row are read
+ * into the argument slots of their properties and the entity is built in one call
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class ConstructorRowMapper<T> implements RowMapper<T> {
+
+	private final LobHandler lobHandler;
+	private final Class<?> persistentClass;
+	private final EntityCreator creator;
+	private final Map<String, Integer> slotsByColumn = new HashMap<String, Integer>();
+	private final ColumnReader[] readers;
+	private final boolean[] clobs;
+	private final boolean[] blobs;
+	private volatile ColumnPlan<Integer> plan;
+
+	public ConstructorRowMapper(LobHandler lobHandler, EntityElement entityElement, Class<?> persistentClass) {
+		this(lobHandler, persistentClass);
+		for (Map.Entry<String, FieldElement> entry : entityElement.getFieldElements().entrySet()) {
+			FieldElement fieldElement = entry.getValue();
+			if (!fieldElement.isTransientField()) {
+				bind(entry.getKey(), fieldElement.getName(), fieldElement.getColumnReader(), fieldElement.isClob(), fieldElement.isBlob());
+			}
+		}
+	}
+
+	public ConstructorRowMapper(LobHandler lobHandler, DynamicEntityElement dynamicEntityElement, Class<?> dynamicEntityClass) {
+		this(lobHandler, dynamicEntityClass);
+		for (Map.Entry<String, DynamicFieldElement> entry : dynamicEntityElement.getDynamicFieldElements().entrySet()) {
+			DynamicFieldElement fieldElement = entry.getValue();
+			bind(entry.getKey(), fieldElement.getName(), fieldElement.getColumnReader(), fieldElement.isClob(), fieldElement.isBlob());
+		}
+	}
+
+	private ConstructorRowMapper(LobHandler lobHandler, Class<?> persistentClass) {
+		this.lobHandler = lobHandler;
+		this.persistentClass = persistentClass;
+		this.creator = EntityCreator.of(persistentClass);
+		if (null == this.creator) {
+			throw new IllegalArgumentException(persistentClass.getName() + " has no constructor to map rows onto");
+		}
+		this.readers = new ColumnReader[creator.size()];
+		this.clobs = new boolean[creator.size()];
+		this.blobs = new boolean[creator.size()];
+	}
+
+	/**
+	 * Bind the column to the constructor argument of the property of the same name
+	 */
+	private void bind(String column, String name, ColumnReader reader, boolean clob, boolean blob) {
+		for (int slot = 0; slot < creator.size(); slot++) {
+			if (creator.getParameterName(slot).equals(name)) {
+				this.slotsByColumn.put(column, slot);
+				this.readers[slot] = reader;
+				this.clobs[slot] = clob;
+				this.blobs[slot] = blob;
+				return;
+			}
+		}
+	}
+
+	@Override
+	public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+		ColumnPlan<Integer> plan = plan(rs);
+		Object[] arguments = new Object[creator.size()];
+		for (int i = 0; i < plan.size(); i++) {
+			int slot = plan.getField(i);
+			int columnIndex = plan.getColumnIndex(i);
+			if (clobs[slot]) {
+				arguments[slot] = this.lobHandler.getClobAsString(rs, columnIndex);
+			} else if (blobs[slot]) {
+				arguments[slot] = this.lobHandler.getBlobAsBytes(rs, columnIndex);
+			} else {
+				arguments[slot] = readers[slot].read(rs, columnIndex, plan.getColumnType(i));
+			}
+		}
+		return creator.newInstance(arguments);
+	}
+
+	/**
+	 * The column plan of the result set, resolved on its first row
+	 */
+	private ColumnPlan<Integer> plan(ResultSet rs) throws SQLException {
+		ColumnPlan<Integer> plan = this.plan;
+		if (plan == null || !plan.isFor(rs)) {
+			plan = ColumnPlan.of(rs, this.slotsByColumn);
+			this.plan = plan;
+		}
+		return plan;
+	}
+
+	/**
+	 * Mappers of the same class map rows identically, which lets their results be shared
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || obj.getClass() != getClass()) {
+			return false;
+		}
+		return this.persistentClass.equals(((ConstructorRowMapper<?>) obj).persistentClass);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.persistentClass.hashCode();
+	}
+
+}
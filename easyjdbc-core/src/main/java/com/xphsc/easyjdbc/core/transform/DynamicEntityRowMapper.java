@@ -18,25 +18,23 @@ package com.xphsc.easyjdbc.core.transform;
 
 import com.xphsc.easyjdbc.core.metadata.DynamicEntityElement;
 import com.xphsc.easyjdbc.core.metadata.DynamicFieldElement;
-import com.xphsc.easyjdbc.core.metadata.resultset.DefaultResultSet;
 import com.xphsc.easyjdbc.util.Jdbcs;
-import com.xphsc.easyjdbc.util.StringUtil;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.lob.LobHandler;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 
 /**
  * 动态RowMapper
  * Created by ${huipei.x}
  */
-public class DynamicEntityRowMapper<T> implements RowMapper<T>{
+public class DynamicEntityRowMapper<T> implements ReusableRowMapper<T>{
 	
 	private final LobHandler lobHandler;
 	private final DynamicEntityElement dynamicEntityElement;
 	private final Class<?> dynamicEntityClass;
 	private final boolean isMap;
+	private volatile ColumnPlan<DynamicFieldElement> plan;
 
 	public DynamicEntityRowMapper(LobHandler lobHandler
 			,DynamicEntityElement dynamicEntityElement,Class<?> dynamicEntityClass) {
@@ -49,24 +47,63 @@ public class DynamicEntityRowMapper<T> implements RowMapper<T>{
 	@Override
 	public T mapRow(ResultSet rs, int rowNum) throws SQLException {
 		T instance = Jdbcs.newInstance(this.dynamicEntityClass);
-		ResultSetMetaData rsm =rs.getMetaData();
-		int col = rsm.getColumnCount();   //获得列的个数
-		for (int i = 1; i <= col; i++) {
-			String columnLabel = StringUtil.toUnderScoreCase(rsm.getColumnLabel(i));
-			int columnType = rsm.getColumnType(i);
-			DynamicFieldElement dynamicFieldElement = this.dynamicEntityElement
-								.getDynamicFieldElements().get(columnLabel.toUpperCase());
-			if(null == dynamicFieldElement) {
-				continue;
-			}
-			Object value = DefaultResultSet.getResultValue(rs, i, columnType, dynamicFieldElement.getType());
+		assign(rs, instance, false);
+		return instance;
+	}
+
+	@Override
+	public RowMapper<T> reusing() {
+		T instance = Jdbcs.newInstance(this.dynamicEntityClass);
+		return (rs, rowNum) -> {
+			assign(rs, instance, true);
+			return instance;
+		};
+	}
+
+	private void assign(ResultSet rs, Object instance, boolean overwrite) throws SQLException {
+		ColumnPlan<DynamicFieldElement> plan = plan(rs);
+		for (int i = 0; i < plan.size(); i++) {
+			DynamicFieldElement dynamicFieldElement = plan.getField(i);
+			Object value = dynamicFieldElement.getColumnReader().read(rs, plan.getColumnIndex(i), plan.getColumnType(i));
 			if(value==null) {
-				continue;
+				if(!overwrite) {
+					continue;
+				}
+				value = EntityRowMapper.defaultValue(dynamicFieldElement.getType());
 			}
-			String errorMsg = "实体："+this.dynamicEntityElement.getName()+" 字段："+dynamicFieldElement.getName()+" 设置值失败";
-			Jdbcs.invokeMethod(instance, dynamicFieldElement.getWriteMethod(), errorMsg, value);
+			dynamicFieldElement.setValue(instance, value);
 		}
-		return instance;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * The column plan of the result set, resolved on its first row
+	 */
+	private ColumnPlan<DynamicFieldElement> plan(ResultSet rs) throws SQLException {
+		ColumnPlan<DynamicFieldElement> plan = this.plan;
+		if (plan == null || !plan.isFor(rs)) {
+			plan = ColumnPlan.of(rs, this.dynamicEntityElement.getDynamicFieldElements());
+			this.plan = plan;
+		}
+		return plan;
+	}
+
+	/**
+	 * Mappers of the same class map rows identically, which lets their results be shared
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || obj.getClass() != getClass()) {
+			return false;
+		}
+		return this.dynamicEntityClass.equals(((DynamicEntityRowMapper<?>) obj).dynamicEntityClass);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.dynamicEntityClass.hashCode();
+	}
+
+}
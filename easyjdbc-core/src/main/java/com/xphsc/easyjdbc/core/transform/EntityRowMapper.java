@@ -19,24 +19,23 @@ package com.xphsc.easyjdbc.core.transform;
 import com.xphsc.easyjdbc.core.exception.EasyJdbcException;
 import com.xphsc.easyjdbc.core.metadata.EntityElement;
 import com.xphsc.easyjdbc.core.metadata.FieldElement;
-import com.xphsc.easyjdbc.core.metadata.resultset.DefaultResultSet;
 import com.xphsc.easyjdbc.util.Jdbcs;
-import com.xphsc.easyjdbc.util.StringUtil;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.lob.LobHandler;
+import java.lang.reflect.Array;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 
 /**
  * 实体RowMapper
  * Created by ${huipei.x}
  */
-public class EntityRowMapper<T> implements RowMapper<T>{
+public class EntityRowMapper<T> implements ReusableRowMapper<T>{
 
 	private final LobHandler lobHandler;
 	private final EntityElement entityElement;
 	private final Class<?> persistentClass;
+	private volatile ColumnPlan<FieldElement> plan;
 
 	public EntityRowMapper(LobHandler lobHandler,EntityElement entityElement,Class<?> persistentClass) {
 		this.persistentClass = persistentClass;
@@ -47,33 +46,84 @@ public class EntityRowMapper<T> implements RowMapper<T>{
 	@Override
 	public T mapRow(ResultSet rs, int rowNum) throws SQLException {
 		T instance = Jdbcs.newInstance(this.persistentClass);
-		ResultSetMetaData rsm =rs.getMetaData();
-		int col = rsm.getColumnCount();
-		for (int i = 1; i <= col; i++) {
-			String columnLabel = StringUtil.toUnderScoreCase(rsm.getColumnLabel(i));
-			int columnType = rsm.getColumnType(i);
-			FieldElement fieldElement = this.entityElement.getFieldElements().get(columnLabel.toUpperCase());
-			if(null == fieldElement) {
-				continue;
-			}
+		assign(this.lobHandler, this.entityElement, plan(rs), rs, instance, false);
+		return instance;
+	}
+
+	@Override
+	public RowMapper<T> reusing() {
+		T instance = Jdbcs.newInstance(this.persistentClass);
+		return (rs, rowNum) -> {
+			assign(this.lobHandler, this.entityElement, plan(rs), rs, instance, true);
+			return instance;
+		};
+	}
+
+	/**
+	 * Set the mapped columns of the row on the instance, null ones only when overwriting a reused instance
+	 */
+	static void assign(LobHandler lobHandler, EntityElement entityElement, ColumnPlan<FieldElement> plan
+			, ResultSet rs, Object instance, boolean overwrite) throws SQLException {
+		for (int i = 0; i < plan.size(); i++) {
+			FieldElement fieldElement = plan.getField(i);
+			int columnIndex = plan.getColumnIndex(i);
 			Object value = null;
 			if(fieldElement.isClob()){
-				value = this.lobHandler.getClobAsString(rs, i);
+				value = lobHandler.getClobAsString(rs, columnIndex);
 			} else if(fieldElement.isBlob()){
-				value = this.lobHandler.getBlobAsBytes(rs, i);
+				value = lobHandler.getBlobAsBytes(rs, columnIndex);
 			} else {
-				value = DefaultResultSet.getResultValue(rs, i, columnType, fieldElement.getType());
+				value = fieldElement.getColumnReader().read(rs, columnIndex, plan.getColumnType(i));
 			}
 			if(value==null) {
-				continue;
+				if(!overwrite || null == fieldElement.getSetter()) {
+					continue;
+				}
+				value = defaultValue(fieldElement.getType());
 			}
-			if(null == fieldElement.getWriteMethod()) {
-				throw new EasyJdbcException("实体："+this.entityElement.getName()+" 字段："+fieldElement.getName()+" 没有set方法");
+			if(null == fieldElement.getSetter()) {
+				throw new EasyJdbcException("实体："+entityElement.getName()+" 字段："+fieldElement.getName()+" 没有set方法");
 			}
-			String errorMsg = "实体："+this.entityElement.getName()+" 字段："+fieldElement.getName()+" 设置值失败";
-			Jdbcs.invokeMethod(instance, fieldElement.getWriteMethod(), errorMsg, value);
+			fieldElement.setValue(instance, value);
 		}
-		return instance;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * The value a column read as null leaves in a field of the type, the default of primitives
+	 */
+	static Object defaultValue(Class<?> type) {
+		return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+	}
+
+	/**
+	 * The column plan of the result set, resolved on its first row
+	 */
+	private ColumnPlan<FieldElement> plan(ResultSet rs) throws SQLException {
+		ColumnPlan<FieldElement> plan = this.plan;
+		if (plan == null || !plan.isFor(rs)) {
+			plan = ColumnPlan.of(rs, this.entityElement.getFieldElements());
+			this.plan = plan;
+		}
+		return plan;
+	}
+
+	/**
+	 * Mappers of the same class map rows identically, which lets their results be shared
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || obj.getClass() != getClass()) {
+			return false;
+		}
+		return this.persistentClass.equals(((EntityRowMapper<?>) obj).persistentClass);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.persistentClass.hashCode();
+	}
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform;
+
+
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Row mapper able to map the rows onto a single instance of its class, for row callbacks that are
+ * done with each row before the next one is read. Every mapped column is written, null ones included,
+ * so that nothing of the previous row is left behind
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public interface ReusableRowMapper<T> extends RowMapper<T> {
+
+	/**
+	 * A mapper returning the same instance for every row, filled with the values of the current row
+	 */
+	RowMapper<T> reusing();
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018 huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform.setter;
+
+
+import com.xphsc.easyjdbc.core.metadata.ValueElement;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.support.lob.LobHandler;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedList;
+import java.util.List;
+
+
+/**
+ * {@link ValueBatchSetter} binding every value through the {@link ParameterBinder} of its field,
+ * used when compiled mapping is enabled
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class CompiledValueBatchSetter implements BatchPreparedStatementSetter {
+
+	private final LobHandler lobHandler;
+	private final List<LinkedList<ValueElement>> batchValueElements;
+
+	public CompiledValueBatchSetter(LobHandler lobHandler, List<LinkedList<ValueElement>> batchValueElements) {
+		this.lobHandler = lobHandler;
+		this.batchValueElements = batchValueElements;
+	}
+
+	@Override
+	public void setValues(PreparedStatement ps, int i) throws SQLException {
+		CompiledValueSetter.bind(this.lobHandler, ps, this.batchValueElements.get(i));
+	}
+
+	@Override
+	public int getBatchSize() {
+		return this.batchValueElements.size();
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2018 huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform.setter;
+
+
+import com.xphsc.easyjdbc.core.metadata.ValueElement;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.support.lob.LobHandler;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+
+/**
+ * {@link ValueSetter} binding every value through the {@link ParameterBinder} of its field,
+ * used when compiled mapping is enabled
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class CompiledValueSetter implements PreparedStatementSetter {
+
+	private final LobHandler lobHandler;
+	private final List<ValueElement> valueElements;
+
+	public CompiledValueSetter(LobHandler lobHandler, List<ValueElement> valueElements) {
+		this.lobHandler = lobHandler;
+		this.valueElements = valueElements;
+	}
+
+	@Override
+	public void setValues(PreparedStatement ps) throws SQLException {
+		bind(this.lobHandler, ps, this.valueElements);
+	}
+
+	static void bind(LobHandler lobHandler, PreparedStatement ps, List<ValueElement> valueElements) throws SQLException {
+		int paramIndex = 1;
+		for (ValueElement param : valueElements) {
+			ParameterBinder binder = param.getBinder();
+			if (binder != null) {
+				binder.bind(ps, paramIndex, param.getValue());
+			} else if (param.isClob() && null != param.getValue()) {
+				lobHandler.getLobCreator().setClobAsString(ps, paramIndex, (String) param.getValue());
+			} else if (param.isBlob() && null != param.getValue()) {
+				lobHandler.getLobCreator().setBlobAsBytes(ps, paramIndex, (byte[]) param.getValue());
+			} else {
+				ps.setObject(paramIndex, param.getValue());
+			}
+			paramIndex++;
+		}
+	}
+}
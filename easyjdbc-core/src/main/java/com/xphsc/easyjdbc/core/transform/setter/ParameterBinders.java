@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2018 huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.transform.setter;
+
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Typed parameter binders per java type, calling the matching {@link java.sql.PreparedStatement}
+ * setter directly instead of letting the driver inspect every value passed to setObject
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public final class ParameterBinders {
+
+	private static final Map<Class<?>, ParameterBinder> BINDERS = new HashMap<Class<?>, ParameterBinder>();
+
+	private static final ParameterBinder OBJECT_BINDER = (ps, paramIndex, value) -> ps.setObject(paramIndex, value);
+
+	static {
+		register(String.class, String.class, Types.VARCHAR, (ps, paramIndex, value) -> ps.setString(paramIndex, (String) value));
+		register(int.class, Integer.class, Types.INTEGER, (ps, paramIndex, value) -> ps.setInt(paramIndex, (Integer) value));
+		register(long.class, Long.class, Types.BIGINT, (ps, paramIndex, value) -> ps.setLong(paramIndex, (Long) value));
+		register(double.class, Double.class, Types.DOUBLE, (ps, paramIndex, value) -> ps.setDouble(paramIndex, (Double) value));
+		register(float.class, Float.class, Types.REAL, (ps, paramIndex, value) -> ps.setFloat(paramIndex, (Float) value));
+		register(short.class, Short.class, Types.SMALLINT, (ps, paramIndex, value) -> ps.setShort(paramIndex, (Short) value));
+		register(byte.class, Byte.class, Types.TINYINT, (ps, paramIndex, value) -> ps.setByte(paramIndex, (Byte) value));
+		register(boolean.class, Boolean.class, Types.BOOLEAN, (ps, paramIndex, value) -> ps.setBoolean(paramIndex, (Boolean) value));
+		register(BigDecimal.class, BigDecimal.class, Types.DECIMAL, (ps, paramIndex, value) -> ps.setBigDecimal(paramIndex, (BigDecimal) value));
+		register(Timestamp.class, Timestamp.class, Types.TIMESTAMP, (ps, paramIndex, value) -> ps.setTimestamp(paramIndex, (Timestamp) value));
+		register(Date.class, Date.class, Types.DATE, (ps, paramIndex, value) -> ps.setDate(paramIndex, (Date) value));
+		register(Time.class, Time.class, Types.TIME, (ps, paramIndex, value) -> ps.setTime(paramIndex, (Time) value));
+	}
+
+	/**
+	 * Values not of the field type, as generated keys may be, are still left to setObject
+	 */
+	private static void register(Class<?> type, Class<?> valueType, int sqlType, ParameterBinder setter) {
+		ParameterBinder binder = (ps, paramIndex, value) -> {
+			if (value == null) {
+				ps.setNull(paramIndex, sqlType);
+			} else if (valueType.isInstance(value)) {
+				setter.bind(ps, paramIndex, value);
+			} else {
+				ps.setObject(paramIndex, value);
+			}
+		};
+		BINDERS.put(type, binder);
+		if (valueType != type) {
+			BINDERS.put(valueType, binder);
+		}
+	}
+
+	private ParameterBinders() {
+	}
+
+	/**
+	 * The binder of parameters of the given type, values of other types are left to setObject
+	 */
+	public static ParameterBinder binder(Class<?> type) {
+		ParameterBinder binder = BINDERS.get(type);
+		return binder != null ? binder : OBJECT_BINDER;
+	}
+}
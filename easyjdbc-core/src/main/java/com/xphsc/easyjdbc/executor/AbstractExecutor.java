@@ -24,7 +24,6 @@ import com.xphsc.easyjdbc.core.metadata.IdGenerators;
 import com.xphsc.easyjdbc.core.metadata.id.SnowFlakeId;
 import com.xphsc.easyjdbc.core.support.JdbcBuilder;
 import com.xphsc.easyjdbc.util.Assert;
-import com.xphsc.easyjdbc.util.Jdbcs;
 import org.springframework.jdbc.support.lob.DefaultLobHandler;
 import org.springframework.jdbc.support.lob.LobHandler;
 import java.util.UUID;
@@ -56,11 +55,9 @@ public abstract class AbstractExecutor<T> implements Executor<T> {
 			){
 			if(IdGenerators.UUID.equals(fieldElement.getGenerator())){
 				id = UUID.randomUUID().toString().replaceAll("-", "");
-				String errorMsg = "entity："+persistent.getClass().getName()+" Primary key："+fieldElement.getName()+" Setting value failed";
-				Jdbcs.invokeMethod(persistent, fieldElement.getWriteMethod(), errorMsg, id);
+				writeBack(persistent, fieldElement, id);
 			}else if(IdGenerators.SNOWFLAKEID.equals(fieldElement.getGenerator())){
 				SnowFlakeId snowFlake = new SnowFlakeId(2, 3);
-				String errorMsg = "entity："+persistent.getClass().getName()+" Primary key："+fieldElement.getName()+" Setting value failed";
 				if("java.lang.Integer".equals(fieldElement.getType().getName())){
 				  Integer entityId=new Long(snowFlake.nextId()).intValue();
 					id=entityId;
@@ -74,7 +71,7 @@ public abstract class AbstractExecutor<T> implements Executor<T> {
 				}else{
 					id=snowFlake.nextId();
 				}
-				Jdbcs.invokeMethod(persistent, fieldElement.getWriteMethod(), errorMsg, id);
+				writeBack(persistent, fieldElement, id);
 			}
 
 			return id;
@@ -82,6 +79,15 @@ public abstract class AbstractExecutor<T> implements Executor<T> {
 		return value;
 	}
 	
+	/**
+	 * 回写生成的主键，由构造方法创建的不可变实体没有set方法时不回写
+	 */
+	private void writeBack(Object persistent,FieldElement fieldElement,Object id){
+		if(null != fieldElement.getSetter()){
+			fieldElement.setValue(persistent, id);
+		}
+	}
+	
 	protected boolean isEntity(Class<?> persistentClass){
 		return null != persistentClass.getAnnotation(javax.persistence.Entity.class);	
 	}
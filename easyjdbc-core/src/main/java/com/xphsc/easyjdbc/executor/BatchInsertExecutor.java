@@ -20,13 +20,12 @@ package com.xphsc.easyjdbc.executor;
 import com.xphsc.easyjdbc.builder.SQL;
 import com.xphsc.easyjdbc.core.exception.JdbcDataException;
 import com.xphsc.easyjdbc.core.lambda.LambdaSupplier;
-import com.xphsc.easyjdbc.core.transform.setter.ValueBatchSetter;
 import com.xphsc.easyjdbc.core.metadata.ElementResolver;
 import com.xphsc.easyjdbc.core.metadata.EntityElement;
 import com.xphsc.easyjdbc.core.metadata.FieldElement;
 import com.xphsc.easyjdbc.core.metadata.ValueElement;
-import com.xphsc.easyjdbc.util.Jdbcs;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -40,6 +39,8 @@ public class BatchInsertExecutor extends AbstractExecutor<int[]> {
 	private final LinkedList persistents = new LinkedList();
 	private final SQL sqlBuilder = SQL.BUILD();
 	private List<LinkedList<ValueElement>> batchValueElements;
+	private Class<?> persistentClass;
+	private List<Object> primaryKeys;
 	
 	public <S> BatchInsertExecutor(LambdaSupplier<S> jdbcBuilder, List<?> persistents) {
 		super(jdbcBuilder);
@@ -48,10 +49,11 @@ public class BatchInsertExecutor extends AbstractExecutor<int[]> {
 
 	@Override
 	public void prepare() {
-		Class<?> persistentClass = this.persistents.get(0).getClass();
+		this.persistentClass = this.persistents.get(0).getClass();
 		this.checkEntity(persistentClass);
 		EntityElement entityElement = ElementResolver.resolve(persistentClass);
 		this.batchValueElements = new LinkedList();
+		this.primaryKeys = new ArrayList<Object>(this.persistents.size());
 		this.sqlBuilder.INSERT_INTO(entityElement.getTable());
 		for (FieldElement fieldElement: entityElement.getFieldElements().values()) {
 			if (fieldElement.isTransientField()) {
@@ -65,12 +67,16 @@ public class BatchInsertExecutor extends AbstractExecutor<int[]> {
 				if(fieldElement.isTransientField()) {
 					continue;
 				}
-				Object value = Jdbcs.invokeMethod(persistent, fieldElement.getReadMethod()
-						, "entity：" + entityElement.getName() + " field：" + fieldElement.getName() + " Failure to obtain value");
+				Object value = fieldElement.getValue(persistent);
 				if(fieldElement.isPrimaryKey()) {
 					value = super.generatedId(persistent,fieldElement, value);
+					if(value != null && this.primaryKeys != null) {
+						this.primaryKeys.add(value);
+					} else {
+						this.primaryKeys = null;
+					}
 				}
-				valueElements.add(new ValueElement(value,fieldElement.isClob(),fieldElement.isBlob()));
+				valueElements.add(new ValueElement(value,fieldElement));
 			}
 			this.batchValueElements.add(valueElements);
 		}
@@ -79,7 +85,10 @@ public class BatchInsertExecutor extends AbstractExecutor<int[]> {
 	@Override
 	protected int[] doExecute() throws JdbcDataException {
 		String sql = this.sqlBuilder.toString();
-		return this.jdbcBuilder.batchUpdate(sql,new ValueBatchSetter(LOBHANDLER,this.batchValueElements));
+		if(this.primaryKeys != null && !this.primaryKeys.isEmpty()) {
+			return this.jdbcBuilder.batchUpdate(this.persistentClass,this.primaryKeys,sql,this.jdbcBuilder.valueBatchSetter(LOBHANDLER,this.batchValueElements));
+		}
+		return this.jdbcBuilder.batchUpdate(sql,this.jdbcBuilder.valueBatchSetter(LOBHANDLER,this.batchValueElements));
 	}
 
 }
\ No newline at end of file
@@ -20,13 +20,11 @@ package com.xphsc.easyjdbc.executor;
 import com.xphsc.easyjdbc.builder.SQL;
 import com.xphsc.easyjdbc.core.exception.JdbcDataException;
 import com.xphsc.easyjdbc.core.lambda.LambdaSupplier;
-import com.xphsc.easyjdbc.core.transform.setter.ValueBatchSetter;
 import com.xphsc.easyjdbc.core.metadata.ElementResolver;
 import com.xphsc.easyjdbc.core.metadata.EntityElement;
 import com.xphsc.easyjdbc.core.metadata.FieldElement;
 import com.xphsc.easyjdbc.core.metadata.ValueElement;
 import com.xphsc.easyjdbc.util.Assert;
-import com.xphsc.easyjdbc.util.Jdbcs;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -41,6 +39,7 @@ public class BatchUpdateExecutor extends AbstractExecutor<int[]> {
 	private final LinkedList persistents =new LinkedList();
 	private final SQL sqlBuilder = SQL.BUILD();
 	private List<LinkedList<ValueElement>> batchValueElements;
+	private final List<Object> primaryKeys = new LinkedList<Object>();
 	
 	public <S> BatchUpdateExecutor(LambdaSupplier<S> jdbcBuilder, List<?> persistents) {
 		super(jdbcBuilder);
@@ -72,19 +71,18 @@ public class BatchUpdateExecutor extends AbstractExecutor<int[]> {
 					continue;
 				}
 				if (fieldElement.isPrimaryKey()) {
-					primaryKeyValue = Jdbcs.invokeMethod(persistent, fieldElement.getReadMethod()
-							, "entity：" + entityElement.getName() + " Primary key：" + fieldElement.getName() + " Failure to obtain value");
+					primaryKeyValue = fieldElement.getValue(persistent);
 					Assert.notNull(primaryKeyValue, "entity:" + entityElement.getName() + ", Primary key cannot be empty");
 					continue;
 				}
-				Object value = Jdbcs.invokeMethod(persistent, fieldElement.getReadMethod()
-						, "entity：" + entityElement.getName() + " field：" + fieldElement.getName() + " Failure to obtain value");
+				Object value = fieldElement.getValue(persistent);
 				if(null==value) {
 					continue;
 				}
-				valueElements.add(new ValueElement(value,fieldElement.isClob(),fieldElement.isBlob()));
+				valueElements.add(new ValueElement(value,fieldElement));
 			}
-			valueElements.add(new ValueElement(primaryKeyValue,Boolean.FALSE,Boolean.FALSE));
+			valueElements.add(new ValueElement(primaryKeyValue,entityElement.getPrimaryKey()));
+			this.primaryKeys.add(primaryKeyValue);
 			this.batchValueElements.add(valueElements);
 		}
 	}
@@ -92,7 +90,8 @@ public class BatchUpdateExecutor extends AbstractExecutor<int[]> {
 	@Override
 	protected int[] doExecute() throws JdbcDataException {
 		String sql = this.sqlBuilder.toString();
-		return this.jdbcBuilder.batchUpdate(sql,new ValueBatchSetter(LOBHANDLER,this.batchValueElements));
+		return this.jdbcBuilder.batchUpdate(this.persistents.get(0).getClass(), this.primaryKeys
+				, sql,this.jdbcBuilder.valueBatchSetter(LOBHANDLER,this.batchValueElements));
 	}
 
 
@@ -36,6 +36,7 @@ public class CountExecutor extends AbstractExecutor<Long> {
 	private final String sql;
 	private final Object[] parameters;
 	private String querySql;
+	private boolean pageTotal;
 	
 	public <S> CountExecutor(LambdaSupplier<S> jdbcBuilder, String sql, Object[] parameters) {
 		super(jdbcBuilder);
@@ -43,6 +44,14 @@ public class CountExecutor extends AbstractExecutor<Long> {
 		this.parameters = parameters;
 	}
 
+	/**
+	 * @param pageTotal whether the count is the total of a paged query, which may be served from the page total cache
+	 */
+	public <S> CountExecutor(LambdaSupplier<S> jdbcBuilder, String sql, Object[] parameters, boolean pageTotal) {
+		this(jdbcBuilder, sql, parameters);
+		this.pageTotal = pageTotal;
+	}
+
 	public <S> CountExecutor(LambdaSupplier<S> jdbcTemplate, Class<?> persistentClass) {
 		super(jdbcTemplate);
 		this.checkEntity(persistentClass);
@@ -79,6 +88,9 @@ public class CountExecutor extends AbstractExecutor<Long> {
 
 	@Override
 	protected Long doExecute() throws JdbcDataException {
+		if(this.pageTotal){
+			return this.jdbcBuilder.queryForTotal(this.querySql, this.parameters);
+		}
 		if(null==this.parameters||this.parameters.length==0){
 			return this.jdbcBuilder.queryForObject(this.querySql,Long.class);
 		} else {
@@ -25,7 +25,7 @@ import com.xphsc.easyjdbc.core.metadata.ElementResolver;
 import com.xphsc.easyjdbc.core.metadata.EntityElement;
 import com.xphsc.easyjdbc.core.metadata.FieldElement;
 import com.xphsc.easyjdbc.util.Assert;
-import com.xphsc.easyjdbc.util.Jdbcs;
+import java.util.Collections;
 
 /**
  *   删除执行器
@@ -55,8 +55,7 @@ public class DeleteExecutor extends AbstractExecutor<Integer> {
 		this.sqlBuilder.DELETE_FROM(entityElement.getTable());
 		if(this.primaryKeyValue==null){
 			FieldElement primaryKey = entityElement.getPrimaryKey();
-			Object primaryKeyValue = Jdbcs.invokeMethod(this.persistent, primaryKey.getReadMethod()
-					, "entity：" + entityElement.getName() + " Primary key：" + primaryKey.getName() + " Failure to obtain value");
+			Object primaryKeyValue = primaryKey.getValue(this.persistent);
 			Assert.notNull(primaryKeyValue, "entity:" + entityElement.getName() + ", Primary key cannot be empty");
 			this.primaryKeyValue=primaryKeyValue;
 		}
@@ -67,7 +66,7 @@ public class DeleteExecutor extends AbstractExecutor<Integer> {
 	@Override
 	protected Integer doExecute() throws JdbcDataException {
 		String sql = this.sqlBuilder.toString();
-		return this.jdbcBuilder.update(sql,this.primaryKeyValue);
+		return this.jdbcBuilder.update(this.persistentClass, Collections.singleton(this.primaryKeyValue), sql,this.primaryKeyValue);
 	}
 
 
@@ -19,11 +19,11 @@ package com.xphsc.easyjdbc.executor;
 import com.xphsc.easyjdbc.core.exception.JdbcDataException;
 import com.xphsc.easyjdbc.core.lambda.LambdaSupplier;
 import com.xphsc.easyjdbc.page.PageInfo;
-import com.xphsc.easyjdbc.core.transform.DynamicEntityRowMapper;
-import com.xphsc.easyjdbc.core.transform.EntityRowMapper;
 import com.xphsc.easyjdbc.core.metadata.DynamicEntityElement;
 import com.xphsc.easyjdbc.core.metadata.ElementResolver;
 import com.xphsc.easyjdbc.core.metadata.EntityElement;
+import com.xphsc.easyjdbc.core.support.ResultSetIterator;
+import com.xphsc.easyjdbc.core.support.RowHandler;
 import com.xphsc.easyjdbc.page.PageRowBounds;
 import org.springframework.jdbc.core.RowMapper;
 import java.util.Map;
@@ -101,12 +101,7 @@ public class FindExecutor<E> extends AbstractExecutor<E> {
 	@Override
 	@SuppressWarnings("all")
 	protected E doExecute() throws JdbcDataException {
-		RowMapper rowMapper = null;
-		if(this.dynamic){
-			rowMapper = new DynamicEntityRowMapper(LOBHANDLER,this.dynamicEntityElement,this.persistentClass);
-		} else {
-			rowMapper = new EntityRowMapper(LOBHANDLER,this.entityElement,this.persistentClass);
-		}
+		RowMapper rowMapper = rowMapper();
 		if(null==this.parameters||this.parameters.length==0){
 			return (E) this.jdbcBuilder.query(this.querySql,rowMapper);
 		} else {
@@ -115,4 +110,27 @@ public class FindExecutor<E> extends AbstractExecutor<E> {
 
 	}
 
+	/**
+	 * 流式查询，行在读取时才映射，结果不缓存
+	 */
+	public <T> ResultSetIterator<T> iterate(int fetchSize) throws JdbcDataException {
+		prepare();
+		return this.jdbcBuilder.iterate(this.querySql,this.parameters,this.<T>rowMapper(),fetchSize);
+	}
+
+	/**
+	 * 逐行回调查询，行处理后即丢弃，结果不缓存
+	 */
+	public <T> long forEach(RowHandler<? super T> handler, int fetchSize, boolean reuse) throws JdbcDataException {
+		prepare();
+		return this.jdbcBuilder.forEach(this.querySql,this.parameters,this.<T>rowMapper(),handler,fetchSize,reuse);
+	}
+
+	private <T> RowMapper<T> rowMapper() {
+		if(this.dynamic){
+			return this.jdbcBuilder.dynamicEntityRowMapper(LOBHANDLER,this.dynamicEntityElement,this.persistentClass);
+		}
+		return this.jdbcBuilder.entityRowMapper(LOBHANDLER,this.entityElement,this.persistentClass);
+	}
+
 }
\ No newline at end of file
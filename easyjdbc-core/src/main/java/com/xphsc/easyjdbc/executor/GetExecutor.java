@@ -19,12 +19,15 @@ package com.xphsc.easyjdbc.executor;
 
 
 import com.xphsc.easyjdbc.builder.SQL;
+import com.xphsc.easyjdbc.core.cache.EntityCache;
+import com.xphsc.easyjdbc.core.cache.EntityVersions;
+import com.xphsc.easyjdbc.core.cache.NegativeCache;
 import com.xphsc.easyjdbc.core.exception.JdbcDataException;
 import com.xphsc.easyjdbc.core.lambda.LambdaSupplier;
-import com.xphsc.easyjdbc.core.transform.EntityRowMapper;
 import com.xphsc.easyjdbc.core.metadata.ElementResolver;
 import com.xphsc.easyjdbc.core.metadata.EntityElement;
 import com.xphsc.easyjdbc.core.metadata.FieldElement;
+import org.springframework.dao.EmptyResultDataAccessException;
 
 
 
@@ -62,8 +65,39 @@ public class GetExecutor<T> extends AbstractExecutor<T> {
 
 	@Override
 	protected T doExecute() throws JdbcDataException {
+		EntityCache entityCache = this.jdbcBuilder.getEntityCache();
+		if(entityCache == null) {
+			return this.query();
+		}
+		T entity = entityCache.get(this.persistentClass, this.primaryKeyValue);
+		if(entity != null) {
+			return entity;
+		}
+		EntityVersions.Token token = entityCache.token(this.persistentClass, this.entityElement.getTable());
+		entity = this.query();
+		entityCache.put(this.persistentClass, this.primaryKeyValue, entity, token);
+		return entity;
+	}
+
+	/**
+	 * Query the entity, remembering in the negative cache the primary keys not found
+	 */
+	private T query() {
 		String sql = this.sqlBuilder.toString();
-		return this.jdbcBuilder.queryForObject(sql,new EntityRowMapper<T>(LOBHANDLER,this.entityElement,this.persistentClass),this.primaryKeyValue);
+		NegativeCache negativeCache = this.jdbcBuilder.getNegativeCache();
+		if(negativeCache == null) {
+			return this.jdbcBuilder.queryForObject(sql,this.jdbcBuilder.<T>entityRowMapper(LOBHANDLER,this.entityElement,this.persistentClass),this.primaryKeyValue);
+		}
+		if(negativeCache.isMissing(this.persistentClass, this.primaryKeyValue)) {
+			throw new EmptyResultDataAccessException(1);
+		}
+		EntityVersions.Token token = negativeCache.token(this.persistentClass, this.entityElement.getTable());
+		try {
+			return this.jdbcBuilder.queryForObject(sql,this.jdbcBuilder.<T>entityRowMapper(LOBHANDLER,this.entityElement,this.persistentClass),this.primaryKeyValue);
+		} catch(EmptyResultDataAccessException e) {
+			negativeCache.put(this.persistentClass, this.primaryKeyValue, token);
+			throw e;
+		}
 	}
 
 
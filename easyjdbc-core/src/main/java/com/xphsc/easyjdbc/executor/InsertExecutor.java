@@ -21,20 +21,19 @@ import com.xphsc.easyjdbc.builder.SQL;
 import com.xphsc.easyjdbc.core.entity.InsertMode;
 import com.xphsc.easyjdbc.core.exception.JdbcDataException;
 import com.xphsc.easyjdbc.core.lambda.LambdaSupplier;
-import com.xphsc.easyjdbc.core.transform.setter.ValueSetter;
 import com.xphsc.easyjdbc.core.metadata.ElementResolver;
 import com.xphsc.easyjdbc.core.metadata.EntityElement;
 import com.xphsc.easyjdbc.core.metadata.FieldElement;
 import com.xphsc.easyjdbc.core.metadata.ValueElement;
 import com.xphsc.easyjdbc.core.metadata.type.FillDateTypeHandler;
-import com.xphsc.easyjdbc.util.Jdbcs;
+import com.xphsc.easyjdbc.core.support.SqlPreparedStatementCreator;
 import com.xphsc.easyjdbc.util.StringUtil;
-import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -81,8 +80,7 @@ public class InsertExecutor extends AbstractExecutor<Object> {
 			if(fieldElement.isTransientField()) {
 				continue;
 			}
-			Object value = Jdbcs.invokeMethod(this.persistent, fieldElement.getReadMethod()
-					, "entity：" + entityElement.getName() + " field：" + fieldElement.getName() + " Failure to obtain value");
+			Object value = fieldElement.getValue(this.persistent);
 			if (fieldElement.isPrimaryKey()) {
 				value = super.generatedId(this.persistent,fieldElement, value);
 				primaryKey=value;
@@ -97,7 +95,7 @@ public class InsertExecutor extends AbstractExecutor<Object> {
 			}
 
 			this.sqlBuilder.VALUES(fieldElement.getColumn(), "?");
-			this.valueElements.add(new ValueElement(value,fieldElement.isClob(),fieldElement.isBlob()));
+			this.valueElements.add(new ValueElement(value,fieldElement));
 		}
 	}
 
@@ -106,7 +104,7 @@ public class InsertExecutor extends AbstractExecutor<Object> {
 		final String sql = this.sqlBuilder.toString();
 		if(returnKey){
 			KeyHolder keyHolder = new GeneratedKeyHolder();
-			jdbcBuilder.update(new PreparedStatementCreator() {
+			jdbcBuilder.update(this.persistent.getClass(),primaryKey,new SqlPreparedStatementCreator(sql) {
 									@Override
 									public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
 										PreparedStatement ps = con.prepareStatement(sql.toString(), 1);
@@ -120,8 +118,10 @@ public class InsertExecutor extends AbstractExecutor<Object> {
 								},
 					keyHolder);
 			return keyHolder.getKey()!=null?keyHolder.getKey():primaryKey;
+		}else if(primaryKey!=null){
+			return this.jdbcBuilder.update(this.persistent.getClass(),Collections.singletonList(primaryKey),sql,this.jdbcBuilder.valueSetter(LOBHANDLER,this.valueElements));
 		}else{
-			return this.jdbcBuilder.update(sql,new ValueSetter(LOBHANDLER,this.valueElements));
+			return this.jdbcBuilder.update(sql,this.jdbcBuilder.valueSetter(LOBHANDLER,this.valueElements));
 		}
 	}
 
@@ -22,14 +22,13 @@ import com.xphsc.easyjdbc.core.exception.JdbcDataException;
 import com.xphsc.easyjdbc.core.lambda.LambdaSupplier;
 import com.xphsc.easyjdbc.core.metadata.version.DefaultVersion;
 import com.xphsc.easyjdbc.core.metadata.version.NextVersion;
-import com.xphsc.easyjdbc.core.transform.setter.ValueSetter;
 import com.xphsc.easyjdbc.core.metadata.ElementResolver;
 import com.xphsc.easyjdbc.core.metadata.EntityElement;
 import com.xphsc.easyjdbc.core.metadata.FieldElement;
 import com.xphsc.easyjdbc.core.metadata.ValueElement;
 import com.xphsc.easyjdbc.core.metadata.type.FillDateTypeHandler;
 import com.xphsc.easyjdbc.util.Assert;
-import com.xphsc.easyjdbc.util.Jdbcs;
+import java.util.Collections;
 import java.util.LinkedList;
 
 
@@ -44,6 +43,7 @@ public class UpdateExecutor extends AbstractExecutor<Integer> {
 	private final SQL sqlBuilder = SQL.BUILD();
 	
 	private LinkedList<ValueElement> valueElements;
+	private Object primaryKeyValue;
 	
 	public <S> UpdateExecutor(LambdaSupplier<S> jdbcBuilder , Object persistent, boolean ignoreNull) {
 		super(jdbcBuilder);
@@ -58,14 +58,13 @@ public class UpdateExecutor extends AbstractExecutor<Integer> {
 		this.valueElements =new LinkedList();
 		this.sqlBuilder.UPDATE(entityElement.getTable());
 		FieldElement primaryKey = entityElement.getPrimaryKey();
-		Object primaryKeyValue = Jdbcs.invokeMethod(this.persistent, primaryKey.getReadMethod()
-				, "entity：" + entityElement.getName() + " Primary key：" + primaryKey.getName() + " Failure to obtain value");
+		Object primaryKeyValue = primaryKey.getValue(this.persistent);
 		Assert.notNull(primaryKeyValue, "entity:" + entityElement.getName() + ", Primary key cannot be empty");
+		this.primaryKeyValue = primaryKeyValue;
 		FieldElement version = entityElement.getVersion();
 		Object versionValue=null;
        if(version!=null){
-		    versionValue = Jdbcs.invokeMethod(this.persistent, version.getReadMethod()
-				   , "entity：" + entityElement.getName() + " version：" + version.getName() + " Failure to obtain value");
+		    versionValue = version.getValue(this.persistent);
 	  }
 		for (FieldElement fieldElement: entityElement.getFieldElements().values()) {
 			if(fieldElement.isTransientField()) {
@@ -75,8 +74,7 @@ public class UpdateExecutor extends AbstractExecutor<Integer> {
 				continue;
 			}
 
-			Object value = Jdbcs.invokeMethod(this.persistent, fieldElement.getReadMethod()
-					, "entity：" + entityElement.getName() + " field：" + fieldElement.getName() + "Failure to obtain value");
+			Object value = fieldElement.getValue(this.persistent);
 			if(ignoreNull && null == value) {
 				continue;
 			}
@@ -91,16 +89,16 @@ public class UpdateExecutor extends AbstractExecutor<Integer> {
 				}
 			}else{
 				this.sqlBuilder.SET(fieldElement.getColumn() + " = ?");
-				this.valueElements.add(new ValueElement(value,fieldElement.isClob(), fieldElement.isBlob()));
+				this.valueElements.add(new ValueElement(value,fieldElement));
 			}
 
 		}
 
 		this.sqlBuilder.WHERE(primaryKey.getColumn() + " = ?");
-		this.valueElements.add(new ValueElement(primaryKeyValue, primaryKey.isClob(), primaryKey.isBlob()));
+		this.valueElements.add(new ValueElement(primaryKeyValue, primaryKey));
 		if(versionValue!=null){
 			this.sqlBuilder.WHERE(version.getColumn() + " = ?");
-			this.valueElements.add(new ValueElement(versionValue, primaryKey.isClob(), primaryKey.isBlob()));
+			this.valueElements.add(new ValueElement(versionValue, version));
 		}
 
 
@@ -109,7 +107,8 @@ public class UpdateExecutor extends AbstractExecutor<Integer> {
 	@Override
 	protected Integer doExecute() throws JdbcDataException {
 		String sql = this.sqlBuilder.toString();
-		return this.jdbcBuilder.update(sql,new ValueSetter(LOBHANDLER,this.valueElements));
+		return this.jdbcBuilder.update(this.persistent.getClass(), Collections.singleton(this.primaryKeyValue)
+				, sql,this.jdbcBuilder.valueSetter(LOBHANDLER,this.valueElements));
 	}
 
 
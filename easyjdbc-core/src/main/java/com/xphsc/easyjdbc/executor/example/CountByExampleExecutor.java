@@ -34,6 +34,7 @@ public class CountByExampleExecutor extends AbstractExecutor<Long> {
 	private String querySql;
 	private SQL sqlBuilder;
 	private  Object[] parameters;
+	private boolean pageTotal;
 
 
 	public <S> CountByExampleExecutor(SQL sqlBuilder,LambdaSupplier<S> jdbcBuilder,Object[] parameters) {
@@ -42,6 +43,14 @@ public class CountByExampleExecutor extends AbstractExecutor<Long> {
 		this.parameters=parameters;
 	}
 
+	/**
+	 * @param pageTotal whether the count is the total of a paged query, which may be served from the page total cache
+	 */
+	public <S> CountByExampleExecutor(SQL sqlBuilder,LambdaSupplier<S> jdbcBuilder,Object[] parameters,boolean pageTotal) {
+		this(sqlBuilder,jdbcBuilder,parameters);
+		this.pageTotal=pageTotal;
+	}
+
 
 	@Override
 	public void prepare() {
@@ -62,6 +71,9 @@ public class CountByExampleExecutor extends AbstractExecutor<Long> {
 
 	@Override
 	protected Long doExecute() throws JdbcDataException {
+		if(this.pageTotal){
+			return this.jdbcBuilder.queryForTotal(this.querySql, this.parameters);
+		}
 		if(null==this.parameters||this.parameters.length==0){
 			return this.jdbcBuilder.queryForObject(this.querySql,Long.class);
 		} else {
@@ -24,11 +24,11 @@ import com.xphsc.easyjdbc.core.metadata.DynamicEntityElement;
 import com.xphsc.easyjdbc.core.metadata.ElementResolver;
 import com.xphsc.easyjdbc.core.metadata.EntityElement;
 import com.xphsc.easyjdbc.core.metadata.FieldElement;
+import com.xphsc.easyjdbc.core.support.ResultSetIterator;
+import com.xphsc.easyjdbc.core.support.RowHandler;
 import com.xphsc.easyjdbc.executor.AbstractExecutor;
 import com.xphsc.easyjdbc.page.PageRowBounds;
 import com.xphsc.easyjdbc.page.PageInfo;
-import com.xphsc.easyjdbc.core.transform.DynamicEntityRowMapper;
-import com.xphsc.easyjdbc.core.transform.EntityRowMapper;
 import com.xphsc.easyjdbc.util.Collects;
 import org.springframework.jdbc.core.RowMapper;
 import java.util.*;
@@ -141,24 +141,45 @@ public class FindByExampleExecutor<T>  extends AbstractExecutor<T> {
     }
     @Override
     protected T doExecute() throws JdbcDataException {
-        RowMapper rowMapper = null;
+        RowMapper rowMapper = rowMapper();
+        String sql = querySql();
+                if(null==this.parameters||this.parameters.length==0){
+                    return (T) this.jdbcBuilder.query(sql,rowMapper);
+                } else {
+                    return (T) this.jdbcBuilder.query(sql,this.parameters,rowMapper);
+                }
+        }
+
+    /**
+     * 流式查询，行在读取时才映射，结果不缓存
+     */
+    public <E> ResultSetIterator<E> iterate(int fetchSize) throws JdbcDataException {
+        prepare();
+        return this.jdbcBuilder.iterate(querySql(),this.parameters,this.<E>rowMapper(),fetchSize);
+    }
+
+    /**
+     * 逐行回调查询，行处理后即丢弃，结果不缓存
+     */
+    public <E> long forEach(RowHandler<? super E> handler, int fetchSize, boolean reuse) throws JdbcDataException {
+        prepare();
+        return this.jdbcBuilder.forEach(querySql(),this.parameters,this.<E>rowMapper(),handler,fetchSize,reuse);
+    }
+
+    private String querySql() {
         String sql = this.sqlBuilder.toString();
         if(null!=this.startRow&&-1!=this.startRow&& null!=this.limit&&this.limit>0){
           sql=  PageRowBounds.pagination(dialectName, this.sqlBuilder.toString(), startRow, this.limit);
         }
+        return sql;
+    }
 
-
+    private <E> RowMapper<E> rowMapper() {
         if(this.isDynamic){
-            rowMapper = new DynamicEntityRowMapper(LOBHANDLER,this.dynamicEntityElement,this.persistentClass);
-        } else {
-            rowMapper = new EntityRowMapper(LOBHANDLER,this.entityElement,this.persistentClass);
-        }
-                if(null==this.parameters||this.parameters.length==0){
-                    return (T) this.jdbcBuilder.query(sql,rowMapper);
-                } else {
-                    return (T) this.jdbcBuilder.query(sql,this.parameters,rowMapper);
-                }
+            return this.jdbcBuilder.dynamicEntityRowMapper(LOBHANDLER,this.dynamicEntityElement,this.persistentClass);
         }
+        return this.jdbcBuilder.entityRowMapper(LOBHANDLER,this.entityElement,this.persistentClass);
+    }
 
 
 }
@@ -26,6 +26,8 @@ import com.xphsc.easyjdbc.core.metadata.ElementResolver;
 import com.xphsc.easyjdbc.core.metadata.EntityElement;
 import com.xphsc.easyjdbc.executor.AbstractExecutor;
 import com.xphsc.easyjdbc.core.support.JdbcBuilder;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  *   删除执行器
@@ -36,6 +38,7 @@ public class DeleteByIdsExecutor extends AbstractExecutor<Integer> {
 	private final Class<?> persistentClass;
 	private final Iterable primaryKeyValues;
 	private final SQL sqlBuilder = SQL.BUILD();
+	private final List<Object> primaryKeys = new ArrayList<Object>();
 
 	public <S> DeleteByIdsExecutor(LambdaSupplier<S> jdbcBuilder , Class<?> persistentClass, Iterable primaryKeyValues) {
 		super(jdbcBuilder);
@@ -53,6 +56,7 @@ public class DeleteByIdsExecutor extends AbstractExecutor<Integer> {
 		String inValues="";
 		for (Object value : primaryKeyValues) {
 			inValues+="'"+value+"',";
+			this.primaryKeys.add(value);
 		}
 		inValues = inValues.substring(0, inValues.length()-1);
 		sb.append(" (" + inValues+")");
@@ -62,7 +66,7 @@ public class DeleteByIdsExecutor extends AbstractExecutor<Integer> {
 	@Override
 	protected Integer doExecute() throws JdbcDataException {
 		String sql = this.sqlBuilder.toString();
-		return this.jdbcBuilder.update(sql);
+		return this.jdbcBuilder.update(this.persistentClass, this.primaryKeys, sql);
 	}
 
 
@@ -18,6 +18,8 @@ package com.xphsc.easyjdbc.executor.ids;
 
 
 import com.xphsc.easyjdbc.builder.SQL;
+import com.xphsc.easyjdbc.core.cache.EntityCache;
+import com.xphsc.easyjdbc.core.cache.EntityVersions;
 import com.xphsc.easyjdbc.core.exception.JdbcDataException;
 import com.xphsc.easyjdbc.core.lambda.LambdaSupplier;
 import com.xphsc.easyjdbc.core.lambda.Reflections;
@@ -25,8 +27,11 @@ import com.xphsc.easyjdbc.core.metadata.ElementResolver;
 import com.xphsc.easyjdbc.core.metadata.EntityElement;
 import com.xphsc.easyjdbc.core.metadata.FieldElement;
 import com.xphsc.easyjdbc.executor.AbstractExecutor;
-import com.xphsc.easyjdbc.core.transform.EntityRowMapper;
 import com.xphsc.easyjdbc.core.support.JdbcBuilder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -48,7 +53,6 @@ public class FindByIdsExecutor<T> extends AbstractExecutor<T> {
 
 	@Override
 	public void prepare() {
-		StringBuilder sb = new StringBuilder();
 		this.checkEntity(this.persistentClass);
 		this.entityElement = ElementResolver.resolve(this.persistentClass);
 		this.sqlBuilder.FROM(entityElement.getTable());
@@ -58,20 +62,58 @@ public class FindByIdsExecutor<T> extends AbstractExecutor<T> {
 			}
 			this.sqlBuilder.SELECT(fieldElement.getColumn());
 		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected T doExecute() throws JdbcDataException {
+		EntityCache entityCache = this.jdbcBuilder.getEntityCache();
+		if(entityCache == null) {
+			return (T) query(this.primaryKeyValues);
+		}
+		Map<String, Object> entities = new LinkedHashMap<String, Object>();
+		List<Object> missing = new ArrayList<Object>();
+		for (Object value : primaryKeyValues) {
+			String key = String.valueOf(value);
+			if(entities.containsKey(key)) {
+				continue;
+			}
+			Object entity = entityCache.get(this.persistentClass, value);
+			entities.put(key, entity);
+			if(entity == null) {
+				missing.add(value);
+			}
+		}
+		if(!missing.isEmpty()) {
+			EntityVersions.Token token = entityCache.token(this.persistentClass, this.entityElement.getTable());
+			FieldElement primaryKey = this.entityElement.getPrimaryKey();
+			for (Object entity : query(missing)) {
+				Object primaryKeyValue = primaryKey.getValue(entity);
+				entities.put(String.valueOf(primaryKeyValue), entity);
+				entityCache.put(this.persistentClass, primaryKeyValue, entity, token);
+			}
+		}
+		List<Object> list = new ArrayList<Object>(entities.size());
+		for (Object entity : entities.values()) {
+			if(entity != null) {
+				list.add(entity);
+			}
+		}
+		return (T) list;
+	}
+
+	private List<Object> query(Iterable<?> values) {
+		StringBuilder sb = new StringBuilder();
 		sb.append(entityElement.getPrimaryKey().getColumn() + " in ");
 		String inValues="";
-		for (Object value : primaryKeyValues) {
+		for (Object value : values) {
 			inValues+="'"+value+"',";
 		}
 		inValues = inValues.substring(0, inValues.length()-1);
 		sb.append(" (" + inValues+")");
 		this.sqlBuilder.WHERE(sb.toString());
-	}
-
-	@Override
-	protected T doExecute() throws JdbcDataException {
 		String sql = this.sqlBuilder.toString();
-		return (T) this.jdbcBuilder.query(sql,new EntityRowMapper<T>(LOBHANDLER,this.entityElement,this.persistentClass));
+		return this.jdbcBuilder.query(sql,this.jdbcBuilder.<Object>entityRowMapper(LOBHANDLER,this.entityElement,this.persistentClass));
 	}
 
 
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.benchmark;
+
+
+import com.xphsc.easyjdbc.EasyJdbcTemplate;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Latency and database load of repeated {@code find}/{@code getByPrimaryKey} calls with the local
+ * cache off and on. Statements run against an in-process data source that answers every query
+ * with fixed rows after a fixed round-trip delay and counts the statements it executes.
+ * <pre>
+ * java com.xphsc.easyjdbc.benchmark.LocalCacheBenchmark [iterations] [roundTripMicros]
+ * </pre>
+ * @author huipei.x
+ * @since 2.1.0
+ */
+public class LocalCacheBenchmark {
+
+    private static final String FIND_SQL = "select id, name from bench_user where id > ?";
+    private static final int ROWS = 20;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long roundTripMicros = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        FakeDataSource dataSource = new FakeDataSource(roundTripMicros);
+        System.out.println("iterations=" + iterations + ", round trip=" + roundTripMicros + "us");
+        for (boolean useLocalCache : new boolean[]{false, true}) {
+            EasyJdbcTemplate template = EasyJdbcTemplate.builder()
+                    .dataSource(dataSource.proxy)
+                    .dialectName("mysql")
+                    .useLocalCache(useLocalCache)
+                    .build();
+            template.clear();
+            run("find", useLocalCache, iterations, dataSource, () -> template.find(FIND_SQL, BenchUser.class, 0));
+            run("getByPrimaryKey", useLocalCache, iterations, dataSource, () -> template.getByPrimaryKey(BenchUser.class, 1L));
+        }
+    }
+
+    private static void run(String name, boolean useLocalCache, int iterations, FakeDataSource dataSource, Runnable call) {
+        for (int i = 0; i < iterations / 10; i++) {
+            call.run();
+        }
+        long statements = dataSource.statements.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            call.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long executed = dataSource.statements.get() - statements;
+        System.out.printf("%-16s localCache=%-5s avg=%8.1fus  statements/call=%.3f%n", name, useLocalCache,
+                elapsed / 1000.0 / iterations, (double) executed / iterations);
+    }
+
+    @Entity
+    @Table(name = "bench_user")
+    public static class BenchUser {
+        @Id
+        private Long id;
+        private String name;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Data source answering range queries with {@link #ROWS} rows of (id, name), other queries with one
+     */
+    private static final class FakeDataSource implements InvocationHandler {
+        private final long roundTripNanos;
+        private final AtomicLong statements = new AtomicLong();
+        private final DataSource proxy;
+
+        private FakeDataSource(long roundTripMicros) {
+            this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+            this.proxy = proxy(DataSource.class, this);
+        }
+
+        @Override
+        public Object invoke(Object p, java.lang.reflect.Method method, Object[] args) {
+            if ("getConnection".equals(method.getName())) {
+                return proxy(Connection.class, (c, m, a) -> {
+                    if (m.getName().startsWith("prepare")) {
+                        return statement((String) a[0]);
+                    }
+                    return defaultValue(m.getReturnType());
+                });
+            }
+            return defaultValue(method.getReturnType());
+        }
+
+        private PreparedStatement statement(String sql) {
+            return proxy(PreparedStatement.class, (s, m, a) -> {
+                if ("executeQuery".equals(m.getName())) {
+                    statements.incrementAndGet();
+                    LockSupport.parkNanos(roundTripNanos);
+                    return resultSet(sql.contains(" > ") ? ROWS : 1);
+                }
+                return defaultValue(m.getReturnType());
+            });
+        }
+
+        private ResultSet resultSet(int rows) {
+            String[] labels = {"ID", "NAME"};
+            int[] types = {Types.BIGINT, Types.VARCHAR};
+            ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (md, m, a) -> {
+                switch (m.getName()) {
+                    case "getColumnCount":
+                        return labels.length;
+                    case "getColumnLabel":
+                    case "getColumnName":
+                        return labels[(Integer) a[0] - 1];
+                    case "getColumnType":
+                        return types[(Integer) a[0] - 1];
+                    default:
+                        return defaultValue(m.getReturnType());
+                }
+            });
+            int[] row = {0};
+            return proxy(ResultSet.class, (rs, m, a) -> {
+                switch (m.getName()) {
+                    case "next":
+                        return ++row[0] <= rows;
+                    case "getMetaData":
+                        return metaData;
+                    case "getLong":
+                        return (long) row[0];
+                    case "getString":
+                        return "user-" + row[0];
+                    case "getObject":
+                        return ((Integer) a[0]) == 1 ? (Object) (long) row[0] : "user-" + row[0];
+                    default:
+                        return defaultValue(m.getReturnType());
+                }
+            });
+        }
+
+        private static Object defaultValue(Class<?> type) {
+            if (type == boolean.class) {
+                return false;
+            }
+            if (type == int.class) {
+                return 0;
+            }
+            if (type == long.class) {
+                return 0L;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(LocalCacheBenchmark.class.getClassLoader(), new Class[]{type}, handler);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.core.cache;
+
+/**
+ * Checks the weight limit of {@link SegmentedLruCache} with its default limits: an entry may
+ * weigh up to the whole limit whatever partition it falls in, a heavier one is not cached, and
+ * the total weight never stays above the limit. Fails with an {@link AssertionError}.
+ * <pre>
+ * java com.xphsc.easyjdbc.core.cache.SegmentedLruCacheWeightCheck
+ * </pre>
+ */
+public class SegmentedLruCacheWeightCheck {
+
+    private static final int MB = 1024 * 1024;
+
+    public static void main(String[] args) {
+        SegmentedLruCache cache = new SegmentedLruCache("WeightCheck");
+        long maxWeight = cache.getMaxWeight();
+
+        cache.putObject("large", new byte[10 * MB]);
+        check(cache.getOject("large") != null, "a 10MB entry is cached under the 64MB limit");
+
+        cache.putObject("ceiling", new byte[(int) maxWeight - 1024]);
+        check(cache.getOject("ceiling") != null, "an entry just under the whole limit is cached");
+        check(cache.getOject("large") == null, "the lighter entry is evicted to make room for it");
+        check(cache.getWeight() <= maxWeight, "the total weight stays within the limit");
+
+        cache.putObject("oversized", new byte[(int) maxWeight + 1]);
+        check(cache.getOject("oversized") == null, "an entry heavier than the whole limit is not cached");
+
+        cache.clear();
+        for (int i = 0; i < 64; i++) {
+            cache.putObject("entry-" + i, new byte[4 * MB]);
+        }
+        check(cache.getWeight() <= maxWeight, "the total weight stays within the limit over many partitions");
+        check(cache.getSize() >= 15, "the cache holds as many 4MB entries as the limit allows");
+
+        cache.clear();
+        check(cache.getWeight() == 0 && cache.getSize() == 0, "clear releases all weight");
+        System.out.println("SegmentedLruCache weight checks passed, per-entry ceiling=" + maxWeight + " bytes");
+    }
+
+    private static void check(boolean condition, String expectation) {
+        if (!condition) {
+            throw new AssertionError(expectation);
+        }
+    }
+}
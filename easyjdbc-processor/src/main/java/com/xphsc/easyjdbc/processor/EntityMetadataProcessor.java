@@ -0,0 +1,675 @@
+/*
+ * Copyright (c) 2018-2019  huipei.x
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xphsc.easyjdbc.processor;
+
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Generates for every {@code @Entity} the {@code EntityMetadataProvider} that {@code ElementResolver}
+ * picks up instead of resolving the entity by reflection: the entity metadata with its getters and
+ * setters bound as lambdas, and a row mapper calling the result
+ * set getters and entity setters directly. Entities whose constructor or accessors the generated class
+ * cannot reach, entities in field access mode or built through their constructor and entities lacking
+ * accessors are skipped with a note and keep being resolved by reflection
+ * @author huipei.x
+ * @since 2.1.0
+ */
+@SupportedAnnotationTypes("javax.persistence.Entity")
+public class EntityMetadataProcessor extends AbstractProcessor {
+
+    private static final String SUFFIX = "_EasyJdbc";
+
+    private static final String TABLE = "javax.persistence.Table";
+    private static final String MAPPED_SUPERCLASS = "javax.persistence.MappedSuperclass";
+    private static final String ID = "javax.persistence.Id";
+    private static final String GENERATED_VALUE = "javax.persistence.GeneratedValue";
+    private static final String COLUMN = "javax.persistence.Column";
+    private static final String LOB = "javax.persistence.Lob";
+    private static final String TRANSIENT = "javax.persistence.Transient";
+    private static final String VERSION = "javax.persistence.Version";
+    private static final String CREATED_DATE = "com.xphsc.easyjdbc.annotation.CreatedDate";
+    private static final String MODIFIED_DATE = "com.xphsc.easyjdbc.annotation.ModifiedDate";
+    private static final String FIELD_ACCESS = "com.xphsc.easyjdbc.annotation.FieldAccess";
+    private static final String CONSTRUCTOR_PROPERTIES = "java.beans.ConstructorProperties";
+
+    private static final String METADATA = "com.xphsc.easyjdbc.core.metadata.";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    TypeElement entity = (TypeElement) element;
+                    EntityModel model = resolve(entity);
+                    if (model != null) {
+                        write(entity, model);
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolves the entity as ElementResolver does, null when it has to stay with reflection
+     */
+    private EntityModel resolve(TypeElement entity) {
+        Elements elements = processingEnv.getElementUtils();
+        EntityModel model = new EntityModel();
+        model.name = elements.getBinaryName(entity).toString();
+        model.type = entity.getQualifiedName().toString();
+        model.packageName = elements.getPackageOf(entity).getQualifiedName().toString();
+        if (!isReachable(entity)) {
+            note(entity, "not accessible from its package, resolved by reflection");
+            return null;
+        }
+        if (annotation(entity, FIELD_ACCESS) != null) {
+            note(entity, "field access, resolved by reflection");
+            return null;
+        }
+        if (isConstructed(entity)) {
+            note(entity, "constructor mapping, resolved by reflection");
+            return null;
+        }
+        List<TypeElement> hierarchy = new ArrayList<TypeElement>();
+        for (TypeMirror superclass = entity.getSuperclass(); superclass.getKind() == TypeKind.DECLARED; ) {
+            TypeElement type = (TypeElement) ((DeclaredType) superclass).asElement();
+            if (annotation(type, MAPPED_SUPERCLASS) != null) {
+                if (annotation(type, TABLE) != null) {
+                    error(type, "实体：" + elements.getBinaryName(type) + ",注解错误。 MappedSuperclass、Table两个注解不能同时用在一个类上");
+                    return null;
+                }
+                hierarchy.add(type);
+            }
+            superclass = type.getSuperclass();
+        }
+        Collections.reverse(hierarchy);
+        hierarchy.add(entity);
+        AnnotationMirror table = annotation(entity, TABLE);
+        if (table != null) {
+            String tableName = (String) value(table, "name");
+            model.table = isNotBlank(tableName) ? tableName : null;
+            model.catalog = (String) value(table, "catalog");
+            model.schema = (String) value(table, "schema");
+        }
+        for (TypeElement type : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+                    continue;
+                }
+                PropertyModel property = resolve(model, hierarchy, field);
+                if (property == null) {
+                    return null;
+                }
+                model.properties.add(property);
+            }
+        }
+        if (model.primaryKey == null) {
+            error(entity, "实体：" + model.name + ",必须要注解主键。");
+            return null;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(entity.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                model.constructible = !entity.getModifiers().contains(Modifier.ABSTRACT);
+            }
+        }
+        return model;
+    }
+
+    private PropertyModel resolve(EntityModel model, List<TypeElement> hierarchy, VariableElement field) {
+        Types types = processingEnv.getTypeUtils();
+        PropertyModel property = new PropertyModel();
+        property.name = field.getSimpleName().toString();
+        TypeMirror type = types.erasure(field.asType());
+        property.type = type.toString();
+        property.primitive = type.getKind().isPrimitive();
+        property.boxedType = property.primitive ? types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString() : property.type;
+        property.simpleTypeName = simpleName(type);
+        String capitalized = Character.toTitleCase(property.name.charAt(0)) + property.name.substring(1);
+        ExecutableElement getter = method(hierarchy, "get" + capitalized, null);
+        if (getter == null) {
+            getter = method(hierarchy, "is" + capitalized, null);
+        }
+        ExecutableElement setter = method(hierarchy, "set" + capitalized, type);
+        property.transientField = annotation(field, TRANSIENT) != null;
+        if (!property.transientField) {
+            if (getter == null || setter == null) {
+                note(field, "accessors missing, resolved by reflection");
+                return null;
+            }
+        }
+        if ((getter != null && !isReachable(getter, model.packageName)) || (setter != null && !isReachable(setter, model.packageName))) {
+            note(field, "accessors not accessible from the package of the entity, resolved by reflection");
+            return null;
+        }
+        property.getter = getter != null ? getter.getSimpleName().toString() : null;
+        property.setter = setter != null ? setter.getSimpleName().toString() : null;
+        if (annotation(field, ID) != null) {
+            if (model.primaryKey != null) {
+                error(field, "实体：" + property.name + "只能有一个主键");
+                return null;
+            }
+            property.primaryKey = true;
+            model.primaryKey = property;
+        }
+        AnnotationMirror generatedValue = annotation(field, GENERATED_VALUE);
+        if (generatedValue != null) {
+            if (!property.primaryKey) {
+                error(field, "实体：" + model.name + ",注解错误。 GeneratedValue只能注解在主键上");
+                return null;
+            }
+            property.generatedValue = true;
+            property.strategy = ((VariableElement) value(generatedValue, "strategy")).getSimpleName().toString();
+            property.generator = (String) value(generatedValue, "generator");
+        }
+        AnnotationMirror column = annotation(field, COLUMN);
+        if (column != null) {
+            property.column = isNotBlank((String) value(column, "name")) ? (String) value(column, "name") : null;
+            property.columnAnnotated = true;
+            property.nullable = (Boolean) value(column, "nullable");
+            property.unique = (Boolean) value(column, "unique");
+            property.length = (Integer) value(column, "length");
+            property.columnDefinition = (String) value(column, "columnDefinition");
+            property.insertable = (Boolean) value(column, "insertable");
+            property.updatable = (Boolean) value(column, "updatable");
+            property.table = (String) value(column, "table");
+        }
+        if (annotation(field, LOB) != null) {
+            String simpleName = property.simpleTypeName;
+            property.clob = "String".equals(simpleName) || "Character[]".equals(simpleName)
+                    || "char[]".equals(simpleName) || "Clob".equals(simpleName);
+            property.blob = "Byte[]".equals(simpleName) || "byte[]".equals(simpleName) || "Blob".equals(simpleName);
+        }
+        if (annotation(field, VERSION) != null) {
+            if (model.version != null) {
+                error(field, "实体：" + property.name + "只能有一个Version");
+                return null;
+            }
+            property.version = true;
+            model.version = property;
+        }
+        property.createdDate = annotation(field, CREATED_DATE) != null;
+        property.modifiedDate = annotation(field, MODIFIED_DATE) != null;
+        if (property.column == null) {
+            property.column = camelToUnderline(property.name);
+        }
+        return property;
+    }
+
+    private void write(TypeElement entity, EntityModel model) {
+        String simpleName = model.packageName.isEmpty() ? model.name : model.name.substring(model.packageName.length() + 1);
+        String providerName = simpleName.replace('$', '_') + SUFFIX;
+        String qualifiedName = model.packageName.isEmpty() ? providerName : model.packageName + "." + providerName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, entity);
+            try (Writer writer = file.openWriter()) {
+                writer.write(new SourceWriter(model, providerName).source());
+            }
+        } catch (IOException e) {
+            error(entity, "Failure to write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Source of the provider of one entity
+     */
+    private static final class SourceWriter {
+        private final EntityModel model;
+        private final String providerName;
+        private final StringBuilder out = new StringBuilder();
+
+        private SourceWriter(EntityModel model, String providerName) {
+            this.model = model;
+            this.providerName = providerName;
+        }
+
+        private String source() {
+            if (!model.packageName.isEmpty()) {
+                line(0, "package " + model.packageName + ";");
+                line(0, "");
+            }
+            line(0, "/**");
+            line(0, " * Metadata of {@link " + model.type + "} generated by easyjdbc-processor, do not edit");
+            line(0, " */");
+            line(0, "@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+            line(0, "public final class " + providerName + " implements " + METADATA + "EntityMetadataProvider {");
+            line(0, "");
+            line(1, "public static final String TABLE = " + literal(model.table) + ";");
+            line(0, "");
+            entityElement();
+            line(0, "");
+            line(1, "@Override");
+            line(1, "public <T> org.springframework.jdbc.core.RowMapper<T> rowMapper() {");
+            line(2, "return (org.springframework.jdbc.core.RowMapper<T>) new Mapper();");
+            line(1, "}");
+            line(0, "");
+            mapper();
+            line(0, "}");
+            return out.toString();
+        }
+
+        private void entityElement() {
+            line(1, "@Override");
+            line(1, "public " + METADATA + "EntityElement entityElement() {");
+            line(2, METADATA + "EntityElement entityElement = new " + METADATA + "EntityElement();");
+            line(2, "entityElement.setName(" + literal(model.name) + ");");
+            if (model.table != null) {
+                line(2, "entityElement.setTable(TABLE);");
+            }
+            if (model.catalog != null) {
+                line(2, "entityElement.setCatalog(" + literal(model.catalog) + ");");
+                line(2, "entityElement.setSchema(" + literal(model.schema) + ");");
+            }
+            line(2, METADATA + "FieldElement fieldElement;");
+            for (PropertyModel property : model.properties) {
+                line(2, "fieldElement = new " + METADATA + "FieldElement();");
+                line(2, "fieldElement.setName(" + literal(property.name) + ");");
+                line(2, "fieldElement.setType(" + property.type + ".class);");
+                line(2, "fieldElement.setColumn(" + literal(property.column) + ");");
+                if (property.getter != null) {
+                    line(2, "fieldElement.setGetter(entity -> ((" + model.type + ") entity)." + property.getter + "());");
+                }
+                if (property.setter != null) {
+                    line(2, "fieldElement.setSetter((entity, value) -> ((" + model.type + ") entity)." + property.setter
+                            + "((" + property.boxedType + ") value));");
+                }
+                if (property.primaryKey) {
+                    line(2, "fieldElement.setPrimaryKey(true);");
+                    line(2, "entityElement.setPrimaryKey(fieldElement);");
+                }
+                if (property.generatedValue) {
+                    line(2, "fieldElement.setGeneratedValue(true);");
+                    line(2, "fieldElement.setStrategy(javax.persistence.GenerationType." + property.strategy + ");");
+                    line(2, "fieldElement.setGenerator(" + literal(property.generator) + ");");
+                }
+                if (property.columnAnnotated) {
+                    line(2, "fieldElement.setNullable(" + property.nullable + ");");
+                    line(2, "fieldElement.setUnique(" + property.unique + ");");
+                    line(2, "fieldElement.setLength(" + property.length + ");");
+                    line(2, "fieldElement.setColumnDefinition(" + literal(property.columnDefinition) + ");");
+                    line(2, "fieldElement.setInsertable(" + property.insertable + ");");
+                    line(2, "fieldElement.setUpdatable(" + property.updatable + ");");
+                    line(2, "fieldElement.setTable(" + literal(property.table) + ");");
+                }
+                if (property.clob) {
+                    line(2, "fieldElement.setClob(true);");
+                }
+                if (property.blob) {
+                    line(2, "fieldElement.setBlob(true);");
+                }
+                if (property.transientField) {
+                    line(2, "fieldElement.setTransientField(true);");
+                }
+                if (property.version) {
+                    line(2, "fieldElement.setVersion(true);");
+                    line(2, "entityElement.setVersion(fieldElement);");
+                }
+                if (property.createdDate) {
+                    line(2, "fieldElement.setCreatedDateField(true);");
+                }
+                if (property.modifiedDate) {
+                    line(2, "fieldElement.setModifieDateField(true);");
+                }
+                line(2, "entityElement.addFieldElement(" + literal(property.column.toUpperCase(Locale.ENGLISH)) + ", fieldElement);");
+            }
+            line(2, "return entityElement;");
+            line(1, "}");
+        }
+
+        private void mapper() {
+            line(1, "private static final class Mapper implements org.springframework.jdbc.core.RowMapper<" + model.type + "> {");
+            line(0, "");
+            for (int i = 0; i < model.properties.size(); i++) {
+                if (!model.properties.get(i).transientField && needsReader(model.properties.get(i))) {
+                    line(2, "private static final " + METADATA + "resultset.ColumnReader READER_" + i + " = "
+                            + METADATA + "resultset.DefaultResultSet.reader(" + model.properties.get(i).type + ".class);");
+                }
+            }
+            line(2, "private java.lang.ref.WeakReference<java.sql.ResultSet> resultSet;");
+            line(2, "private int[] columns;");
+            line(2, "private int[] slots;");
+            line(2, "private int[] jdbcTypes;");
+            line(0, "");
+            line(2, "@Override");
+            line(2, "public " + model.type + " mapRow(java.sql.ResultSet rs, int rowNum) throws java.sql.SQLException {");
+            line(3, "if (resultSet == null || resultSet.get() != rs) {");
+            line(4, "plan(rs);");
+            line(3, "}");
+            if (model.constructible) {
+                line(3, model.type + " entity = new " + model.type + "();");
+            } else {
+                line(3, model.type + " entity = com.xphsc.easyjdbc.util.Jdbcs.newInstance(" + model.type + ".class);");
+            }
+            line(3, "for (int i = 0; i < slots.length; i++) {");
+            line(4, "int column = columns[i];");
+            line(4, "switch (slots[i]) {");
+            for (int i = 0; i < model.properties.size(); i++) {
+                if (!model.properties.get(i).transientField) {
+                    assign(i, model.properties.get(i));
+                }
+            }
+            line(5, "default:");
+            line(6, "break;");
+            line(4, "}");
+            line(3, "}");
+            line(3, "return entity;");
+            line(2, "}");
+            line(0, "");
+            line(2, "private void plan(java.sql.ResultSet rs) throws java.sql.SQLException {");
+            line(3, "java.sql.ResultSetMetaData rsm = rs.getMetaData();");
+            line(3, "int count = rsm.getColumnCount();");
+            line(3, "int[] columns = new int[count];");
+            line(3, "int[] slots = new int[count];");
+            line(3, "int[] jdbcTypes = new int[count];");
+            line(3, "int size = 0;");
+            line(3, "for (int i = 1; i <= count; i++) {");
+            line(4, "int slot = slot(com.xphsc.easyjdbc.util.StringUtil.toUnderScoreCase(rsm.getColumnLabel(i)).toUpperCase(java.util.Locale.ENGLISH));");
+            line(4, "if (slot >= 0) {");
+            line(5, "columns[size] = i;");
+            line(5, "slots[size] = slot;");
+            line(5, "jdbcTypes[size] = rsm.getColumnType(i);");
+            line(5, "size++;");
+            line(4, "}");
+            line(3, "}");
+            line(3, "this.columns = java.util.Arrays.copyOf(columns, size);");
+            line(3, "this.slots = java.util.Arrays.copyOf(slots, size);");
+            line(3, "this.jdbcTypes = java.util.Arrays.copyOf(jdbcTypes, size);");
+            line(3, "this.resultSet = new java.lang.ref.WeakReference<java.sql.ResultSet>(rs);");
+            line(2, "}");
+            line(0, "");
+            line(2, "private static int slot(String column) {");
+            line(3, "switch (column) {");
+            for (int i = 0; i < model.properties.size(); i++) {
+                if (!model.properties.get(i).transientField) {
+                    line(4, "case " + literal(model.properties.get(i).column.toUpperCase(Locale.ENGLISH)) + ":");
+                    line(5, "return " + i + ";");
+                }
+            }
+            line(4, "default:");
+            line(5, "return -1;");
+            line(3, "}");
+            line(2, "}");
+            line(0, "");
+            line(2, "@Override");
+            line(2, "public boolean equals(Object obj) {");
+            line(3, "return obj != null && obj.getClass() == getClass();");
+            line(2, "}");
+            line(0, "");
+            line(2, "@Override");
+            line(2, "public int hashCode() {");
+            line(3, "return getClass().hashCode();");
+            line(2, "}");
+            line(1, "}");
+        }
+
+        private void assign(int slot, PropertyModel property) {
+            line(5, "case " + slot + ": {");
+            if (property.setter == null) {
+                line(6, "if (READER_" + slot + ".read(rs, column, jdbcTypes[i]) != null) {");
+                line(7, "throw new com.xphsc.easyjdbc.core.exception.EasyJdbcException("
+                        + literal("实体：" + model.name + " 字段：" + property.name + " 没有set方法") + ");");
+                line(6, "}");
+            } else if (property.clob && "java.lang.String".equals(property.type)) {
+                line(6, "String value = rs.getString(column);");
+                line(6, "if (value != null) {");
+                line(7, "entity." + property.setter + "(value);");
+                line(6, "}");
+            } else if (property.blob && "byte[]".equals(property.type)) {
+                line(6, "byte[] value = rs.getBytes(column);");
+                line(6, "if (value != null) {");
+                line(7, "entity." + property.setter + "(value);");
+                line(6, "}");
+            } else if (property.primitive && !"char".equals(property.type)) {
+                line(6, "entity." + property.setter + "(rs.get" + Character.toUpperCase(property.type.charAt(0))
+                        + property.type.substring(1) + "(column));");
+            } else {
+                line(6, "Object value = READER_" + slot + ".read(rs, column, jdbcTypes[i]);");
+                line(6, "if (value != null) {");
+                line(7, "entity." + property.setter + "((" + property.boxedType + ") value);");
+                line(6, "}");
+            }
+            line(6, "break;");
+            line(5, "}");
+        }
+
+        private boolean needsReader(PropertyModel property) {
+            if (property.setter == null) {
+                return true;
+            }
+            if ((property.clob && "java.lang.String".equals(property.type)) || (property.blob && "byte[]".equals(property.type))) {
+                return false;
+            }
+            return !property.primitive || "char".equals(property.type);
+        }
+
+        private void line(int indent, String text) {
+            for (int i = 0; i < indent; i++) {
+                out.append("    ");
+            }
+            out.append(text).append('\n');
+        }
+    }
+
+    private ExecutableElement method(List<TypeElement> hierarchy, String name, TypeMirror parameterType) {
+        Types types = processingEnv.getTypeUtils();
+        for (TypeElement type : hierarchy) {
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (!method.getSimpleName().contentEquals(name) || method.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                List<? extends VariableElement> parameters = method.getParameters();
+                if (parameterType == null ? parameters.isEmpty()
+                        : parameters.size() == 1 && types.isSameType(types.erasure(parameters.get(0).asType()), parameterType)) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The generated class sits in the package of the entity and casts to it
+     */
+    /**
+     * Records and classes with a constructor annotated with ConstructorProperties are mapped through it
+     */
+    private boolean isConstructed(TypeElement entity) {
+        if ("RECORD".equals(entity.getKind().name())) {
+            return true;
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(entity.getEnclosedElements())) {
+            if (annotation(constructor, CONSTRUCTOR_PROPERTIES) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isReachable(TypeElement entity) {
+        if (entity.getNestingKind() == NestingKind.MEMBER && !entity.getModifiers().contains(Modifier.STATIC)) {
+            return false;
+        }
+        for (Element element = entity; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isReachable(ExecutableElement method, String packageName) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return processingEnv.getElementUtils().getPackageOf(method).getQualifiedName().contentEquals(packageName);
+    }
+
+    private AnnotationMirror annotation(Element element, String annotationType) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private Object value(AnnotationMirror annotation, String name) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String simpleName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return simpleName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            return ((DeclaredType) type).asElement().getSimpleName().toString();
+        }
+        return type.toString();
+    }
+
+    private static String camelToUnderline(String fieldName) {
+        StringBuilder sb = new StringBuilder(fieldName.length());
+        for (int i = 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (Character.isUpperCase(c)) {
+                sb.append('_').append(Character.toLowerCase(c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isNotBlank(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    private static String literal(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void note(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+    }
+
+    private static final class EntityModel {
+        private String name;
+        private String type;
+        private String packageName;
+        private String table;
+        private String catalog;
+        private String schema;
+        private PropertyModel primaryKey;
+        private PropertyModel version;
+        private boolean constructible;
+        private final List<PropertyModel> properties = new ArrayList<PropertyModel>();
+    }
+
+    private static final class PropertyModel {
+        private String name;
+        private String type;
+        private String boxedType;
+        private String simpleTypeName;
+        private boolean primitive;
+        private String column;
+        private String getter;
+        private String setter;
+        private boolean primaryKey;
+        private boolean generatedValue;
+        private String strategy;
+        private String generator;
+        private boolean columnAnnotated;
+        private boolean nullable;
+        private boolean unique;
+        private int length;
+        private String columnDefinition;
+        private boolean insertable;
+        private boolean updatable;
+        private String table;
+        private boolean clob;
+        private boolean blob;
+        private boolean transientField;
+        private boolean version;
+        private boolean createdDate;
+        private boolean modifiedDate;
+    }
+}